@@ -0,0 +1,76 @@
+package com.logistics.routeoptimizer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logistics.routeoptimizer.util.GraphUtils;
+
+/**
+ * Подготовка матрицы расстояний. Флойд-Уоршелл работает на месте, поэтому
+ * каждая итерация начинает с копии исходной матрицы; копирование O(n^2)
+ * пренебрежимо мало рядом с O(n^3).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FloydWarshallBenchmark {
+    @Param({"100", "400", "1000"})
+    public int n;
+
+    @Param({"0.1"})
+    public double density;
+
+    private int[][] graph;
+    private int[][] initialized;
+    private int[] flat;
+
+    @Setup
+    public void setUp() {
+        graph = RandomInstances.graph(42, n, density, 100);
+        initialized = GraphUtils.initializeGraph(graph);
+        flat = GraphUtils.initializeFlatGraph(graph);
+    }
+
+    @Benchmark
+    public int[][] initializeGraph() {
+        return GraphUtils.initializeGraph(graph);
+    }
+
+    @Benchmark
+    public int[][] floydWarshall() {
+        int[][] distances = new int[n][];
+        for (int i = 0; i < n; i++) {
+            distances[i] = initialized[i].clone();
+        }
+        GraphUtils.floydWarshall(distances);
+        return distances;
+    }
+
+    @Benchmark
+    public int[] floydWarshallBlocked() {
+        int[] distances = flat.clone();
+        GraphUtils.floydWarshallBlocked(distances, n);
+        return distances;
+    }
+
+    @Benchmark
+    public int[] floydWarshallBlockedParallel() {
+        int[] distances = flat.clone();
+        GraphUtils.floydWarshallBlocked(distances, n, Runtime.getRuntime().availableProcessors());
+        return distances;
+    }
+}
@@ -0,0 +1,68 @@
+package com.logistics.routeoptimizer.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.util.GraphUtils;
+
+/**
+ * Воспроизводимые случайные графы и заказы для бенчмарков: одинаковый seed
+ * даёт одинаковые данные на любой машине.
+ */
+public final class RandomInstances {
+    private RandomInstances() {
+    }
+
+    /** Симметричный граф, в котором каждое ребро присутствует с вероятностью density. */
+    public static int[][] graph(long seed, int n, double density, int maxWeight) {
+        Random random = new Random(seed);
+        int[][] graph = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (j == i + 1 || random.nextDouble() < density) {
+                    int w = 1 + random.nextInt(maxWeight);
+                    graph[i][j] = w;
+                    graph[j][i] = w;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * k заказов в разных локациях графа (кроме start). Дедлайны задаются вдоль
+     * случайного обхода по кратчайшим путям с запасом slack, поэтому хотя бы
+     * один допустимый маршрут всегда существует; чем меньше slack, тем жёстче задача.
+     */
+    public static List<Order> orders(long seed, int[][] graph, int start, int k, int slack) {
+        Random random = new Random(seed);
+        int n = graph.length;
+        if (k >= n) {
+            throw new IllegalArgumentException("Заказов больше, чем локаций");
+        }
+        int[][] distances = GraphUtils.initializeGraph(graph);
+        GraphUtils.floydWarshall(distances);
+
+        List<Integer> locations = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            if (v != start) {
+                locations.add(v);
+            }
+        }
+        Collections.shuffle(locations, random);
+
+        List<Order> orders = new ArrayList<>(k);
+        int time = 0;
+        int current = start;
+        for (int i = 0; i < k; i++) {
+            int location = locations.get(i);
+            time += distances[current][location];
+            current = location;
+            orders.add(new Order(location, time + random.nextInt(slack + 1)));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,70 @@
+package com.logistics.routeoptimizer.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logistics.routeoptimizer.DeliveryRouteOptimizer;
+import com.logistics.routeoptimizer.SolverMode;
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.util.DistanceMatrixCache;
+
+/**
+ * findDeliveryRoute в зависимости от числа заказов k, жёсткости дедлайнов
+ * (slack — запас в минутах относительно заведомо допустимого обхода) и режима.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RoutingBenchmark {
+    @Param({"8", "12", "16", "20"})
+    public int k;
+
+    @Param({"5", "1000"})
+    public int slack;
+
+    @Param({"ITERATIVE", "PARALLEL", "BRANCH_AND_BOUND", "HEURISTIC"})
+    public SolverMode mode;
+
+    @Param({"200"})
+    public int n;
+
+    private int[][] graph;
+    private List<Order> orders;
+    private DeliveryRouteOptimizer optimizer;
+
+    @Setup
+    public void setUp() {
+        graph = RandomInstances.graph(7, n, 0.05, 30);
+        orders = RandomInstances.orders(11, graph, 0, k, slack);
+        optimizer = new DeliveryRouteOptimizer(graph);
+        optimizer.setSolverMode(mode);
+    }
+
+    @Benchmark
+    public List<Integer> findDeliveryRoute() {
+        return optimizer.findDeliveryRoute(0, orders);
+    }
+
+    /** Построение оптимизатора без кэша матриц и решение — полный путь одного вызова. */
+    @Benchmark
+    public List<Integer> endToEnd() {
+        DeliveryRouteOptimizer fresh = new DeliveryRouteOptimizer(graph, new DistanceMatrixCache(DistanceMatrixCache.DEFAULT_MAX_BYTES));
+        fresh.setSolverMode(mode);
+        return fresh.findDeliveryRoute(0, orders);
+    }
+}
@@ -1,134 +1,639 @@
 package com.logistics.routeoptimizer;
 
 import com.logistics.routeoptimizer.model.Order;
-import com.logistics.routeoptimizer.util.GraphUtils;
+import com.logistics.routeoptimizer.model.OrderBatch;
+import com.logistics.routeoptimizer.model.RouteRequest;
+import com.logistics.routeoptimizer.solver.BranchAndBoundSolver;
+import com.logistics.routeoptimizer.solver.CancellationToken;
+import com.logistics.routeoptimizer.solver.DpBufferPool;
+import com.logistics.routeoptimizer.solver.FeasibilityChecker;
+import com.logistics.routeoptimizer.solver.FleetPartitioner;
+import com.logistics.routeoptimizer.solver.HeldKarpSolver;
+import com.logistics.routeoptimizer.solver.HeuristicSolver;
+import com.logistics.routeoptimizer.solver.LabelSettingSolver;
+import com.logistics.routeoptimizer.solver.ParallelHeldKarpSolver;
+import com.logistics.routeoptimizer.solver.RecursiveSolver;
+import com.logistics.routeoptimizer.solver.RoutingProblem;
+import com.logistics.routeoptimizer.solver.TimeDependentTravel;
+import com.logistics.routeoptimizer.solver.TimeWindows;
+import com.logistics.routeoptimizer.util.CsrGraph;
+import com.logistics.routeoptimizer.util.DenseDistanceMatrix;
+import com.logistics.routeoptimizer.util.DijkstraDistanceMatrix;
+import com.logistics.routeoptimizer.util.DistanceMatrix;
+import com.logistics.routeoptimizer.util.DistanceMatrixCache;
+import com.logistics.routeoptimizer.util.DynamicDistanceMatrix;
+import com.logistics.routeoptimizer.util.TaskExecutors;
+import com.logistics.routeoptimizer.util.TimeDependentDistanceMatrix;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class DeliveryRouteOptimizer {
-    private final int[][] distances;
+    // Запасной маршрут для отменяемого точного перебора, как у BranchAndBoundSolver.
+    private static final long SEED_BUDGET_NANOS = 5_000_000L;
+
+    private volatile DistanceMatrix distances;
     private final int n;
-    private Map<Integer, List<Order>> locationToOrders; 
-    private long[][] dp; 
-    private int[][] next; 
-    private static final long INF = Long.MAX_VALUE / 2;
+    private final DpBufferPool bufferPool = new DpBufferPool(Runtime.getRuntime().availableProcessors());
+    private final ArrayDeque<RouteWorkspace> workspaces = new ArrayDeque<>();
+    private volatile SolverMode solverMode = SolverMode.AUTO;
+    private volatile int parallelism = Runtime.getRuntime().availableProcessors();
+    private volatile int exactThreshold = 20;
+    private volatile long heuristicBudgetMillis = 50;
+    private volatile long graphVersion;
+    private volatile SolveListener solveListener;
+
+    /**
+     * Матрица кратчайших путей берётся из общего {@link DistanceMatrixCache}:
+     * оптимизаторы для одного и того же графа разделяют одну матрицу.
+     */
     public DeliveryRouteOptimizer(int[][] graph) {
-        this.n = graph.length;
-        this.distances = GraphUtils.initializeGraph(graph);
-        GraphUtils.floydWarshall(distances);
+        this(graph, DistanceMatrixCache.shared());
     }
 
-    
-    private boolean isValidVisit(int nextLocation, long currentTime) {
-        List<Order> orders = locationToOrders.getOrDefault(nextLocation, Collections.emptyList());
-        for (Order order : orders) {
-            if (currentTime > order.getDeadline()) {
-                return false;
+    public DeliveryRouteOptimizer(int[][] graph, DistanceMatrixCache cache) {
+        this(cache.get(graph));
+    }
+
+    /**
+     * Оптимизатор для большого разреженного графа: полная матрица не строится,
+     * расстояния между стартом и локациями заказов считаются Дейкстрой на каждый запрос.
+     */
+    public DeliveryRouteOptimizer(CsrGraph graph) {
+        this(new DijkstraDistanceMatrix(graph));
+    }
+
+    public DeliveryRouteOptimizer(DistanceMatrix distances) {
+        this.n = distances.size();
+        this.distances = distances;
+    }
+
+    /**
+     * Меняет вес ребра from -> to (0 — ребра нет). Для полной матрицы
+     * кратчайшие пути пересчитываются точечно; при первом обновлении
+     * оптимизатор берёт собственную копию матрицы, поэтому другие оптимизаторы
+     * на том же графе не затрагиваются. Поиск маршрута, идущий одновременно с
+     * обновлением, может увидеть часть изменений. Для разреженного графа
+     * ({@link #DeliveryRouteOptimizer(CsrGraph)}) подменяется сам граф: Дейкстра
+     * и так запускается на каждый запрос.
+     *
+     * Не поддерживаются, и это не временное ограничение:
+     * <ul>
+     *     <li>матрица из файла ({@link com.logistics.routeoptimizer.util.MappedDistanceMatrix},
+     *     {@link com.logistics.routeoptimizer.util.DistanceMatrixFile}) —
+     *     она посчитана заранее и отображена только для чтения, а весов рёбер в файле нет;</li>
+     *     <li>{@link TimeDependentDistanceMatrix} — вес ребра в ней свой для каждого
+     *     интервала времени, и одного нового веса для него недостаточно.</li>
+     * </ul>
+     * В этих случаях выбрасывается {@link UnsupportedOperationException}.
+     */
+    public synchronized void updateEdge(int from, int to, int weight) {
+        updateEdges(new int[]{from}, new int[]{to}, new int[]{weight});
+    }
+
+    /** Пакетное {@link #updateEdge}: версия графа растёт один раз на пакет. */
+    public synchronized void updateEdges(int[] from, int[] to, int[] weights) {
+        if (from.length != to.length || from.length != weights.length) {
+            throw new IllegalArgumentException("Массивы рёбер должны быть одной длины");
+        }
+        if (distances instanceof DijkstraDistanceMatrix) {
+            distances = ((DijkstraDistanceMatrix) distances).withEdges(from, to, weights);
+        } else {
+            DynamicDistanceMatrix dynamic = dynamicDistances();
+            for (int e = 0; e < from.length; e++) {
+                dynamic.updateEdge(from[e], to[e], weights[e]);
             }
         }
-        return true;
+        graphVersion++;
     }
 
-    private void prepareLocationToOrders(List<Order> orders) {
-        locationToOrders = new HashMap<>();
-        for (Order order : orders) {
-            locationToOrders.computeIfAbsent(order.getLocation(), k -> new ArrayList<>()).add(order);
+    /** Растёт при каждом {@link #updateEdge}/{@link #updateEdges}: по нему кэши маршрутов узнают об изменении графа. */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    private DynamicDistanceMatrix dynamicDistances() {
+        if (distances instanceof DenseDistanceMatrix) {
+            distances = ((DenseDistanceMatrix) distances).toDynamic();
+        }
+        if (!(distances instanceof DynamicDistanceMatrix)) {
+            throw new UnsupportedOperationException("Обновление рёбер поддерживается только для полной матрицы расстояний и разреженного графа");
         }
+        return (DynamicDistanceMatrix) distances;
+    }
+
+    public SolverMode getSolverMode() {
+        return solverMode;
     }
 
-   
-    private long dpSolve(int current, int visited, List<Integer> locations, long currentTime) {
-        int k = locations.size();
-        if (visited == (1 << k) - 1) { 
-            return 0;
+    /**
+     * Режим, не поддерживающий время в пути, зависящее от времени выезда
+     * (см. {@link SolverMode}), для оптимизатора на {@link TimeDependentDistanceMatrix}
+     * отклоняется сразу, а не при первом поиске маршрута.
+     */
+    public void setSolverMode(SolverMode solverMode) {
+        Objects.requireNonNull(solverMode);
+        if ((solverMode == SolverMode.RECURSIVE || solverMode == SolverMode.LABEL_SETTING)
+                && distances instanceof TimeDependentDistanceMatrix) {
+            throw new IllegalArgumentException("Режим " + solverMode + " не поддерживает время в пути, зависящее от времени выезда");
         }
+        this.solverMode = solverMode;
+    }
+
+    public SolveListener getSolveListener() {
+        return solveListener;
+    }
+
+    /**
+     * Слушатель статистики каждого построения маршрута (см. {@link SolveStats});
+     * null — статистика не собирается и решение не замедляется.
+     */
+    public void setSolveListener(SolveListener solveListener) {
+        this.solveListener = solveListener;
+    }
 
-        if (dp[current][visited] != -1) {
-            return dp[current][visited];
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Уровень параллелизма должен быть положительным: " + parallelism);
         }
+        this.parallelism = parallelism;
+    }
 
-        long minDistance = INF;
-        int minNext = -1;
+    public List<Integer> findDeliveryRoute(int start, List<Order> orders) {
+        return replanRoute(start, 0, orders, null, CancellationToken.NONE).getRoute();
+    }
+
+    /**
+     * Маршрут без промежуточных коллекций: заказы берутся из массивов batch,
+     * маршрут (старт, затем локации) записывается в начало routeOut. Возвращает
+     * длину маршрута либо -1, если уложиться в дедлайны невозможно; маршрут
+     * тот же, что у {@link #findDeliveryRoute(int, List)}. routeOut должен
+     * вмещать старт и все уникальные локации.
+     *
+     * Рабочие массивы переиспользуются между вызовами, поэтому точное решение
+     * (режим ITERATIVE либо AUTO до порога) на полной матрице расстояний без
+     * слушателя статистики после прогрева не выделяет памяти. Остальные случаи
+     * решаются общим путём с копированием результата.
+     */
+    public int findDeliveryRoute(int start, OrderBatch batch, int[] routeOut) {
+        if (start < 0 || start >= n) {
+            throw new IllegalArgumentException("Некорректная начальная локация");
+        }
+        for (int i = 0, m = batch.size(); i < m; i++) {
+            if (batch.location(i) >= n) {
+                throw new IllegalArgumentException("Некорректная локация заказа: " + batch.location(i));
+            }
+        }
+        if (routeOut.length < 1) {
+            throw new IllegalArgumentException("Буфер маршрута меньше 1");
+        }
+        if (batch.size() == 0) {
+            routeOut[0] = start;
+            return 1;
+        }
+        RouteWorkspace workspace = acquireWorkspace();
+        try {
+            int k = workspace.group(batch);
+            if (routeOut.length < k + 1) {
+                throw new IllegalArgumentException("Буфер маршрута меньше " + (k + 1));
+            }
+            DistanceMatrix matrix = distances;
+            SolverMode mode = solverMode;
+            boolean exact = mode == SolverMode.ITERATIVE && k <= HeldKarpSolver.MAX_LOCATIONS
+                    || mode == SolverMode.AUTO && k <= exactThreshold;
+            if (exact && solveListener == null
+                    && !(matrix instanceof DijkstraDistanceMatrix) && !(matrix instanceof TimeDependentDistanceMatrix)) {
+                return workspace.solve(matrix, start, routeOut);
+            }
+        } finally {
+            releaseWorkspace(workspace);
+        }
+        List<Integer> route = findDeliveryRoute(start, batch.toOrders());
+        if (route == null) {
+            return -1;
+        }
+        for (int i = 0; i < route.size(); i++) {
+            routeOut[i] = route.get(i);
+        }
+        return route.size();
+    }
 
-        for (int i = 0; i < k; i++) {
-            if ((visited & (1 << i)) == 0) {
-                int nextLocation = locations.get(i);
-                long travelDistance = distances[current][nextLocation];
-                long newTime = currentTime + travelDistance;
+    private RouteWorkspace acquireWorkspace() {
+        synchronized (workspaces) {
+            RouteWorkspace workspace = workspaces.poll();
+            if (workspace != null) {
+                return workspace;
+            }
+        }
+        return new RouteWorkspace(n);
+    }
 
-                if (isValidVisit(nextLocation, newTime)) {
-                    long result = dpSolve(nextLocation, visited | (1 << i), locations, newTime);
-                    if (result != INF && travelDistance + result < minDistance) {
-                        minDistance = travelDistance + result;
-                        minNext = i;
-                    }
-                }
+    private void releaseWorkspace(RouteWorkspace workspace) {
+        synchronized (workspaces) {
+            if (workspaces.size() < Runtime.getRuntime().availableProcessors()) {
+                workspaces.push(workspace);
             }
         }
+    }
 
-        dp[current][visited] = minDistance;
-        next[current][visited] = minNext;
-        return minDistance;
+    /**
+     * Перепланирование в середине смены: курьер стоит в currentLocation в
+     * момент currentTime, orders — ещё не доставленные заказы (дедлайны
+     * в абсолютном времени). previousRoute — прежний маршрут в вершинах графа
+     * либо null; уже пройденные и лишние вершины в нём пропускаются, а
+     * оставшийся порядок служит стартовым решением: эвристика улучшает его, а
+     * время этого маршрута, если он ещё допустим, ограничивает точный перебор сверху.
+     */
+    public List<Integer> replanRoute(int currentLocation, long currentTime, List<Order> orders, List<Integer> previousRoute) {
+        return replanRoute(currentLocation, currentTime, orders, previousRoute, CancellationToken.NONE).getRoute();
     }
 
-    private List<Integer> reconstructPath(int start, List<Integer> locations) {
-        List<Integer> route = new ArrayList<>();
-        route.add(start);
-        int current = start;
-        int visited = 0;
-        long currentTime = 0;
+    /**
+     * Построение маршрута, которое можно прервать: решатели проверяют token в
+     * своих циклах и при отмене возвращают лучший маршрут, найденный к этому
+     * моменту (статус FEASIBLE), либо TIMED_OUT, если его нет. Точный перебор
+     * с отменяемым token заранее строит эвристический маршрут — таблица
+     * Хелда-Карпа до конца заполнения маршрута не даёт. Режим RECURSIVE
+     * отмену не проверяет.
+     */
+    public SolveResult findDeliveryRoute(int start, List<Order> orders, CancellationToken token) {
+        return replanRoute(start, 0, orders, null, token);
+    }
 
-        while (visited != (1 << locations.size()) - 1) {
-            int nextIdx = next[current][visited];
-            if (nextIdx == -1) {
-                return null; 
-            }
-            int nextLocation = locations.get(nextIdx);
-            route.add(nextLocation);
-            currentTime += distances[current][nextLocation];
-            current = nextLocation;
-            visited |= (1 << nextIdx);
+    /** {@link #replanRoute(int, long, List, List)} с отменой, как {@link #findDeliveryRoute(int, List, CancellationToken)}. */
+    public SolveResult replanRoute(int currentLocation, long currentTime, List<Order> orders, List<Integer> previousRoute,
+                                   CancellationToken token) {
+        validate(currentLocation, orders);
+        if (currentTime < 0) {
+            throw new IllegalArgumentException("Текущее время не может быть отрицательным");
+        }
+        Objects.requireNonNull(token);
+        if (orders == null || orders.isEmpty()) {
+            return new SolveResult(SolveStatus.OPTIMAL, Collections.singletonList(currentLocation));
+        }
+        SolveListener listener = solveListener;
+        long started = listener != null ? System.nanoTime() : 0;
+        CompactInstance instance = compact(currentLocation, currentTime, orders);
+        SolverMode mode = mode(instance.problem);
+        SolveStats stats = null;
+        if (listener != null) {
+            stats = new SolveStats(mode, instance.problem.size());
+            stats.setCompactNanos(System.nanoTime() - started);
+        }
+        Outcome outcome = solve(instance.problem, instance.warmStart(previousRoute), mode, stats, token);
+        if (listener != null) {
+            stats.setFeasible(outcome.order != null);
+            listener.onSolve(stats);
         }
+        return new SolveResult(outcome.status, instance.toRoute(outcome.order));
+    }
 
-        return route;
+    /**
+     * Начинает сессию планирования: маршрут для orders строится сразу, а заказы,
+     * добавленные в сессию позже, пересчитывают его инкрементально.
+     */
+    public RoutePlanningSession startSession(int start, List<Order> orders) {
+        validate(start, orders);
+        if (orders == null || orders.isEmpty()) {
+            return new RoutePlanningSession(this, new int[]{start}, new ArrayList<>());
+        }
+        CompactInstance instance = compact(start, orders);
+        return new RoutePlanningSession(this, instance.nodes, instance.ordersByLocation);
     }
 
-    public List<Integer> findDeliveryRoute(int start, List<Order> orders) {
+    DistanceMatrix distances() {
+        return distances;
+    }
+
+    private void validate(int start, List<Order> orders) {
         if (start < 0 || start >= n) {
             throw new IllegalArgumentException("Некорректная начальная локация");
         }
-        if (orders == null || orders.isEmpty()) {
-            return Collections.singletonList(start);
+        if (orders == null) {
+            return;
         }
-
-        Set<Integer> orderLocations = new HashSet<>();
         for (Order order : orders) {
             if (order.getLocation() >= n) {
                 throw new IllegalArgumentException("Некорректная локация заказа: " + order.getLocation());
             }
-            orderLocations.add(order.getLocation());
         }
-        prepareLocationToOrders(orders);
+    }
+
+    private CompactInstance compact(int start, List<Order> orders) {
+        return compact(start, 0, orders);
+    }
+
+    // Время отсчитывается от startTime; локации с уже прошедшими окнами получают отрицательный дедлайн.
+    private CompactInstance compact(int start, long startTime, List<Order> orders) {
+        TreeMap<Integer, List<Order>> byLocation = new TreeMap<>();
+        for (Order order : orders) {
+            byLocation.computeIfAbsent(order.getLocation(), l -> new ArrayList<>()).add(order);
+        }
+        int k = byLocation.size();
+        int[] nodes = new int[k + 1];
+        List<List<Order>> ordersByLocation = new ArrayList<>(k);
+        nodes[0] = start;
+        int idx = 0;
+        for (Map.Entry<Integer, List<Order>> entry : byLocation.entrySet()) {
+            nodes[idx + 1] = entry.getKey();
+            ordersByLocation.add(entry.getValue());
+            idx++;
+        }
+
+        TimeWindows windows = TimeWindows.fromOrders(ordersByLocation, startTime);
+        return new CompactInstance(nodes, ordersByLocation, problem(nodes, windows, startTime));
+    }
+
+    // Для профиля скоростей берутся подматрицы всех корзин, время задачи сдвинуто на startTime.
+    RoutingProblem problem(int[] nodes, TimeWindows windows, long startTime) {
+        DistanceMatrix matrix = distances;
+        if (matrix instanceof TimeDependentDistanceMatrix) {
+            TimeDependentDistanceMatrix profile = (TimeDependentDistanceMatrix) matrix;
+            TimeDependentTravel travel = new TimeDependentTravel(profile.bucketSubmatrices(nodes), profile.bucketLength(), startTime);
+            return new RoutingProblem(travel, windows);
+        }
+        return new RoutingProblem(matrix.submatrix(nodes), windows);
+    }
+
+    private SolverMode mode(RoutingProblem problem) {
+        SolverMode mode = solverMode;
+        if (mode == SolverMode.AUTO) {
+            mode = problem.size() <= exactThreshold ? SolverMode.ITERATIVE : SolverMode.HEURISTIC;
+        }
+        return mode;
+    }
+
+    // stats == null — без учёта: ни замеров времени, ни подсчёта состояний.
+    private Outcome solve(RoutingProblem problem, int[] warmStart, SolverMode mode, SolveStats stats, CancellationToken token) {
+        long started = stats != null ? System.nanoTime() : 0;
+        if (mode == SolverMode.HEURISTIC) {
+            int[] order = new HeuristicSolver(problem, heuristicBudgetMillis * 1_000_000L).solve(warmStart, token);
+            if (stats != null) {
+                stats.setFillNanos(System.nanoTime() - started);
+            }
+            return new Outcome(order, order != null ? SolveStatus.FEASIBLE : SolveStatus.TIMED_OUT);
+        }
+        if (mode == SolverMode.BRANCH_AND_BOUND) {
+            BranchAndBoundSolver solver = new BranchAndBoundSolver(problem);
+            int[] order = solver.solve(warmStart, token);
+            if (stats != null) {
+                stats.setFillNanos(System.nanoTime() - started);
+                stats.setStates(solver.getExpanded(), solver.getPruned(), solver.getMemoHits());
+                stats.setTableBytes(solver.memoBytes());
+            }
+            return Outcome.of(order, solver.isComplete());
+        }
+        if (mode == SolverMode.RECURSIVE) {
+            RecursiveSolver solver = new RecursiveSolver(problem);
+            int[] order = solver.solve();
+            if (stats != null) {
+                stats.setFillNanos(System.nanoTime() - started);
+                stats.setTableBytes(solver.memoBytes());
+            }
+            return Outcome.of(order, true);
+        }
+        if (mode == SolverMode.LABEL_SETTING) {
+            LabelSettingSolver solver = new LabelSettingSolver(problem);
+            int[] order = solver.solve(warmStart, token);
+            if (stats != null) {
+                stats.setFillNanos(System.nanoTime() - started);
+                stats.setStates(solver.getLabels(), solver.getPruned(), 0);
+                stats.setTableBytes(solver.labelBytes());
+            }
+            if (order != null && solver.isComplete() && !solver.isExact()) {
+                // Переполнение меток: маршрут найден, но минимальность не доказана.
+                return new Outcome(order, SolveStatus.FEASIBLE);
+            }
+            return Outcome.of(order, solver.isComplete());
+        }
+
+        int[] incumbent = null;
+        long bound = problem.routeTime(warmStart);
+        if (bound >= 0) {
+            incumbent = warmStart;
+        } else if (token != CancellationToken.NONE) {
+            // Недозаполненная таблица маршрута не даёт, поэтому запасной строится заранее.
+            int[] seed = new HeuristicSolver(problem, SEED_BUDGET_NANOS).solve(warmStart, token);
+            bound = seed != null ? problem.routeTime(seed) : -1;
+            incumbent = bound >= 0 ? seed : null;
+        }
+        if (bound >= 0) {
+            problem = problem.withTimeLimit(bound);
+        }
+        int size = HeldKarpSolver.tableSize(problem.size());
+        int[] table = bufferPool.acquire(size);
+        try {
+            boolean complete;
+            int[] order = null;
+            long reachable = 0;
+            long filled;
+            if (mode == SolverMode.PARALLEL) {
+                ParallelHeldKarpSolver solver = new ParallelHeldKarpSolver(problem, table, TaskExecutors.forkJoinPool(parallelism));
+                complete = solver.fill(token);
+                filled = stats != null ? System.nanoTime() : 0;
+                if (complete) {
+                    order = solver.reconstruct();
+                    reachable = stats != null ? solver.reachableStates() : 0;
+                }
+            } else {
+                HeldKarpSolver solver = new HeldKarpSolver(problem, table);
+                complete = solver.fill(token);
+                filled = stats != null ? System.nanoTime() : 0;
+                if (complete) {
+                    order = solver.reconstruct();
+                    reachable = stats != null ? solver.reachableStates() : 0;
+                }
+            }
+            if (stats != null) {
+                stats.setFillNanos(filled - started);
+                stats.setReconstructNanos(System.nanoTime() - filled);
+                stats.setStates(reachable, complete ? size - reachable : 0, 0);
+                stats.setTableBytes(4L * size);
+            }
+            return complete ? Outcome.of(order, true) : Outcome.of(incumbent, false);
+        } finally {
+            bufferPool.release(table);
+        }
+    }
+
+    /**
+     * Решает много независимых запросов к одному графу параллельно.
+     * Результаты возвращаются в порядке запросов; null — маршрут невозможен.
+     */
+    public List<List<Integer>> findDeliveryRoutes(List<RouteRequest> requests) {
+        ExecutorService executor = TaskExecutors.newTaskExecutor();
+        try {
+            return findDeliveryRoutes(requests, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public List<List<Integer>> findDeliveryRoutes(List<RouteRequest> requests, ExecutorService executor) {
+        List<Future<List<Integer>>> futures = new ArrayList<>(requests.size());
+        for (RouteRequest request : requests) {
+            futures.add(executor.submit(() -> findDeliveryRoute(request.getStart(), request.getOrders())));
+        }
+        List<List<Integer>> routes = new ArrayList<>(requests.size());
+        try {
+            for (Future<List<Integer>> future : futures) {
+                routes.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Ошибка при построении маршрута", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Пакетное построение маршрутов прервано", e);
+        }
+        return routes;
+    }
+
+    /**
+     * Маршруты для vehicles машин, выезжающих из depot: заказы распределяются
+     * между машинами (локаций на машину не больше порога точного решения, пока
+     * машин хватает), затем маршрут каждой машины строится как в
+     * {@link #findDeliveryRoutes(List)} параллельно. Маршрут машины без заказов —
+     * только depot, null — машина не успевает к дедлайнам своих заказов.
+     */
+    public List<List<Integer>> planFleet(int depot, int vehicles, List<Order> orders) {
+        validate(depot, orders);
+        if (vehicles < 1) {
+            throw new IllegalArgumentException("Число машин должно быть положительным: " + vehicles);
+        }
+        List<RouteRequest> requests = new ArrayList<>(vehicles);
+        if (orders == null || orders.isEmpty()) {
+            for (int v = 0; v < vehicles; v++) {
+                requests.add(new RouteRequest(depot, Collections.emptyList()));
+            }
+            return findDeliveryRoutes(requests);
+        }
 
-        List<Integer> locations = new ArrayList<>(orderLocations);
-        int k = locations.size();
-        dp = new long[n][1 << k];
-        next = new int[n][1 << k];
-        for (long[] row : dp) {
-            Arrays.fill(row, -1);
+        CompactInstance instance = compact(depot, orders);
+        // Равномерная доля плюс четверть запаса: пробег важнее равной загрузки,
+        // но длинные маршруты дороже решать точно.
+        int share = (instance.problem.size() + vehicles - 1) / vehicles;
+        int perVehicle = Math.min(exactThreshold, share + share / 4 + 1);
+        int[][] assignment = new FleetPartitioner(instance.problem, vehicles, perVehicle,
+                heuristicBudgetMillis * 1_000_000L).partition();
+        for (int[] locations : assignment) {
+            List<Order> vehicleOrders = new ArrayList<>();
+            for (int location : locations) {
+                vehicleOrders.addAll(instance.ordersByLocation.get(location));
+            }
+            requests.add(new RouteRequest(depot, vehicleOrders));
         }
-        for (int[] row : next) {
-            Arrays.fill(row, -1);
+        return findDeliveryRoutes(requests);
+    }
+
+    public int getExactThreshold() {
+        return exactThreshold;
+    }
+
+    /** Наибольшее число уникальных локаций, при котором режим AUTO решает задачу точно. */
+    public void setExactThreshold(int exactThreshold) {
+        if (exactThreshold < 1 || exactThreshold > HeldKarpSolver.MAX_LOCATIONS) {
+            throw new IllegalArgumentException("Порог точного решения должен быть от 1 до " + HeldKarpSolver.MAX_LOCATIONS);
         }
+        this.exactThreshold = exactThreshold;
+    }
+
+    public long getHeuristicBudgetMillis() {
+        return heuristicBudgetMillis;
+    }
 
-        long minDistance = dpSolve(start,0, locations,0);
-        if (minDistance == INF) {
-            return null;
+    public void setHeuristicBudgetMillis(long heuristicBudgetMillis) {
+        if (heuristicBudgetMillis < 0) {
+            throw new IllegalArgumentException("Бюджет времени не может быть отрицательным");
         }
-        return reconstructPath(start, locations);
+        this.heuristicBudgetMillis = heuristicBudgetMillis;
     }
 
+    /**
+     * Проверка без построения маршрута: быстрые необходимые условия, затем
+     * поиск любого допустимого порядка и только в крайнем случае точный перебор.
+     */
     public boolean isDeliveryPossible(int start, List<Order> orders) {
-        return findDeliveryRoute(start, orders) != null;
+        validate(start, orders);
+        if (orders == null || orders.isEmpty()) {
+            return true;
+        }
+        return new FeasibilityChecker(compact(start, orders).problem).isFeasible();
+    }
+
+    // Порядок в сжатых индексах и его статус.
+    private static final class Outcome {
+        private final int[] order;
+        private final SolveStatus status;
+
+        Outcome(int[] order, SolveStatus status) {
+            this.order = order;
+            this.status = status;
+        }
+
+        // complete — перебор доведён до конца, и отсутствие маршрута доказано.
+        static Outcome of(int[] order, boolean complete) {
+            if (complete) {
+                return new Outcome(order, order != null ? SolveStatus.OPTIMAL : SolveStatus.INFEASIBLE);
+            }
+            return new Outcome(order, order != null ? SolveStatus.FEASIBLE : SolveStatus.TIMED_OUT);
+        }
+    }
+
+    // Задача в сжатых индексах и соответствие этих индексов вершинам графа.
+    // Все режимы решают только её: расстояния — плотная подматрица (k+1) x (k+1),
+    // таблицы решателей зависят от k, а не от числа вершин графа n.
+    private static final class CompactInstance {
+        private final int[] nodes;
+        private final List<List<Order>> ordersByLocation;
+        private final RoutingProblem problem;
+
+        CompactInstance(int[] nodes, List<List<Order>> ordersByLocation, RoutingProblem problem) {
+            this.nodes = nodes;
+            this.ordersByLocation = ordersByLocation;
+            this.problem = problem;
+        }
+
+        // Порядок локаций прежнего маршрута в сжатых индексах, без повторов и чужих вершин.
+        int[] warmStart(List<Integer> previousRoute) {
+            if (previousRoute == null) {
+                return new int[0];
+            }
+            Map<Integer, Integer> index = new HashMap<>();
+            for (int i = 1; i < nodes.length; i++) {
+                index.put(nodes[i], i - 1);
+            }
+            int[] order = new int[nodes.length - 1];
+            int count = 0;
+            for (Integer node : previousRoute) {
+                Integer location = node == null ? null : index.remove(node);
+                if (location != null) {
+                    order[count++] = location;
+                }
+            }
+            return Arrays.copyOf(order, count);
+        }
+
+        List<Integer> toRoute(int[] order) {
+            if (order == null) {
+                return null;
+            }
+            List<Integer> route = new ArrayList<>(order.length + 1);
+            route.add(nodes[0]);
+            for (int location : order) {
+                route.add(nodes[location + 1]);
+            }
+            return route;
+        }
     }
 }
\ No newline at end of file
@@ -1,13 +1,50 @@
 package com.logistics.routeoptimizer;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.server.RouteServer;
+import com.logistics.routeoptimizer.stream.StreamingRouteService;
+import com.logistics.routeoptimizer.util.DistanceMatrixFile;
+import com.logistics.routeoptimizer.util.GraphLoader;
 
 public class Main {
-    public static void main(String[] args) {
+    private static final String FILES_USAGE = "Использование: <граф> <заказы> [старт]";
+    private static final String STREAM_USAGE = "Использование: --stream --graph <граф> "
+            + "[--input <файл> | --port <порт>] [--batch-size N] [--batch-delay-ms M] [--queue-capacity Q]";
+    private static final String SERVE_USAGE = "Использование: --serve --graph <граф> [--port <порт>] [--cache-size N]";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--stream")) {
+            stream(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0) {
+            solveFiles(args);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("Введите количество локаций доставки (без начальной локации):");
@@ -34,15 +71,6 @@ public class Main {
                 graph[j][i] = time;
             }
         }
-        for(int i = 0;i<3;i++)
-        {
-            for(int j = 0;j<3;j++)
-            {
-                System.out.print(graph[i][j]);
-                System.out.print(" ");
-            }
-            System.out.println();
-        }
         System.out.println("Количество заказов: " + n);
 
         List<Order> orders = new ArrayList<>();
@@ -69,4 +97,106 @@ public class Main {
 
         scanner.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * Безынтерактивный режим: заказы читаются построчно из stdin, файла или
+     * локального сокета (по одному подключению за раз), маршруты пишутся
+     * строками JSON туда же, откуда пришли заказы (stdout для stdin и файла).
+     */
+    private static void stream(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = options(args);
+        if (options == null || !options.containsKey("--graph")) {
+            System.err.println(STREAM_USAGE);
+            return;
+        }
+
+        DeliveryRouteOptimizer optimizer = loadOptimizer(Paths.get(options.get("--graph")));
+        StreamingRouteService service = new StreamingRouteService(optimizer,
+                Integer.parseInt(options.getOrDefault("--batch-size", "64")),
+                Long.parseLong(options.getOrDefault("--batch-delay-ms", "200")),
+                Integer.parseInt(options.getOrDefault("--queue-capacity", "10000")));
+
+        Writer stdout = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        if (options.containsKey("--port")) {
+            int port = Integer.parseInt(options.get("--port"));
+            try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                while (true) {
+                    try (Socket socket = server.accept()) {
+                        service.run(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        System.err.println("Подключение закрыто с ошибкой: " + e.getMessage());
+                    }
+                }
+            }
+        } else if (options.containsKey("--input")) {
+            try (Reader input = Files.newBufferedReader(Paths.get(options.get("--input")), StandardCharsets.UTF_8)) {
+                service.run(input, stdout);
+            }
+        } else {
+            service.run(new InputStreamReader(System.in, StandardCharsets.UTF_8), stdout);
+        }
+    }
+
+    /** HTTP-сервис {@link RouteServer} на loopback; работает до остановки процесса. */
+    private static void serve(String[] args) throws IOException {
+        Map<String, String> options = options(args);
+        if (options == null || !options.containsKey("--graph")) {
+            System.err.println(SERVE_USAGE);
+            return;
+        }
+        DeliveryRouteOptimizer optimizer = loadOptimizer(Paths.get(options.get("--graph")));
+        RouteServer server = new RouteServer(optimizer, Integer.parseInt(options.getOrDefault("--cache-size", "10000")));
+        InetSocketAddress address = server.start(Integer.parseInt(options.getOrDefault("--port", "8080")));
+        System.err.println("Сервис маршрутов: http://" + address.getHostString() + ":" + address.getPort() + "/route");
+    }
+
+    // Пары "--ключ значение" после режима; null, если аргументы не разбираются.
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                return null;
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    private static void solveFiles(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println(FILES_USAGE);
+            return;
+        }
+        DeliveryRouteOptimizer optimizer = loadOptimizer(Paths.get(args[0]));
+        List<Order> orders = GraphLoader.readOrders(Paths.get(args[1]));
+        int start = args.length == 3 ? Integer.parseInt(args[2]) : 0;
+
+        List<Integer> route = optimizer.findDeliveryRoute(start, orders);
+        if (route != null) {
+            System.out.println("Маршрут доставки: " + route);
+        } else {
+            System.out.println("Невозможно построить маршрут, удовлетворяющий всем дедлайнам.");
+        }
+    }
+
+    /**
+     * Формат графа определяется по файлу: бинарная матрица смежности
+     * {@link GraphLoader}, готовая матрица расстояний {@link DistanceMatrixFile}
+     * (.dpm, отображается в память), список рёбер (.csv, рёбра ориентированные)
+     * либо текстовая матрица смежности.
+     */
+    private static DeliveryRouteOptimizer loadOptimizer(Path path) throws IOException {
+        if (GraphLoader.isBinary(path)) {
+            return new DeliveryRouteOptimizer(GraphLoader.readBinary(path));
+        }
+        String name = path.getFileName().toString();
+        if (name.endsWith(".dpm")) {
+            return new DeliveryRouteOptimizer(DistanceMatrixFile.open(path));
+        }
+        if (name.endsWith(".csv")) {
+            return new DeliveryRouteOptimizer(GraphLoader.readEdges(path, false));
+        }
+        return new DeliveryRouteOptimizer(GraphLoader.readMatrix(path));
+    }
+}
@@ -0,0 +1,152 @@
+package com.logistics.routeoptimizer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Накопительные метрики решений: суммарное время фаз, счётчики состояний,
+ * пик памяти таблицы и время по числу локаций k — по нему удобно задавать
+ * целевые задержки. Подключается как {@link SolveListener}, а через
+ * {@link #register} публикуется в JMX.
+ */
+public class OptimizerMetrics implements SolveListener, OptimizerMetricsMBean {
+    // Всё, что больше, учитывается в последней ячейке.
+    private static final int MAX_TRACKED_LOCATIONS = 64;
+
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder infeasible = new LongAdder();
+    private final LongAdder compactNanos = new LongAdder();
+    private final LongAdder fillNanos = new LongAdder();
+    private final LongAdder reconstructNanos = new LongAdder();
+    private final LongAdder statesExpanded = new LongAdder();
+    private final LongAdder statesPruned = new LongAdder();
+    private final LongAdder memoHits = new LongAdder();
+    private final AtomicLong peakTableBytes = new AtomicLong();
+    private final AtomicLongArray countByLocations = new AtomicLongArray(MAX_TRACKED_LOCATIONS + 1);
+    private final AtomicLongArray nanosByLocations = new AtomicLongArray(MAX_TRACKED_LOCATIONS + 1);
+    private final AtomicLongArray maxNanosByLocations = new AtomicLongArray(MAX_TRACKED_LOCATIONS + 1);
+
+    /**
+     * Подключает метрики к оптимизатору и регистрирует их в платформенном
+     * MBeanServer под именем com.logistics.routeoptimizer:type=Optimizer,name=name.
+     */
+    public static OptimizerMetrics register(DeliveryRouteOptimizer optimizer, String name) {
+        OptimizerMetrics metrics = new OptimizerMetrics();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(metrics, new ObjectName("com.logistics.routeoptimizer:type=Optimizer,name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX: " + name, e);
+        }
+        optimizer.setSolveListener(metrics);
+        return metrics;
+    }
+
+    @Override
+    public void onSolve(SolveStats stats) {
+        solves.increment();
+        if (!stats.isFeasible()) {
+            infeasible.increment();
+        }
+        compactNanos.add(stats.getCompactNanos());
+        fillNanos.add(stats.getFillNanos());
+        reconstructNanos.add(stats.getReconstructNanos());
+        statesExpanded.add(stats.getStatesExpanded());
+        statesPruned.add(stats.getStatesPruned());
+        memoHits.add(stats.getMemoHits());
+        peakTableBytes.accumulateAndGet(stats.getTableBytes(), Math::max);
+
+        int k = Math.min(stats.getLocations(), MAX_TRACKED_LOCATIONS);
+        long total = stats.getTotalNanos();
+        countByLocations.incrementAndGet(k);
+        nanosByLocations.addAndGet(k, total);
+        maxNanosByLocations.accumulateAndGet(k, total, Math::max);
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getInfeasible() {
+        return infeasible.sum();
+    }
+
+    @Override
+    public long getCompactMicros() {
+        return compactNanos.sum() / 1000;
+    }
+
+    @Override
+    public long getFillMicros() {
+        return fillNanos.sum() / 1000;
+    }
+
+    @Override
+    public long getReconstructMicros() {
+        return reconstructNanos.sum() / 1000;
+    }
+
+    @Override
+    public long getStatesExpanded() {
+        return statesExpanded.sum();
+    }
+
+    @Override
+    public long getStatesPruned() {
+        return statesPruned.sum();
+    }
+
+    @Override
+    public long getMemoHits() {
+        return memoHits.sum();
+    }
+
+    @Override
+    public long getPeakTableBytes() {
+        return peakTableBytes.get();
+    }
+
+    @Override
+    public long[] getMeanSolveMicrosByLocations() {
+        long[] mean = new long[MAX_TRACKED_LOCATIONS + 1];
+        for (int k = 0; k < mean.length; k++) {
+            long count = countByLocations.get(k);
+            mean[k] = count == 0 ? 0 : nanosByLocations.get(k) / count / 1000;
+        }
+        return mean;
+    }
+
+    @Override
+    public long[] getMaxSolveMicrosByLocations() {
+        long[] max = new long[MAX_TRACKED_LOCATIONS + 1];
+        for (int k = 0; k < max.length; k++) {
+            max[k] = maxNanosByLocations.get(k) / 1000;
+        }
+        return max;
+    }
+
+    @Override
+    public void reset() {
+        solves.reset();
+        infeasible.reset();
+        compactNanos.reset();
+        fillNanos.reset();
+        reconstructNanos.reset();
+        statesExpanded.reset();
+        statesPruned.reset();
+        memoHits.reset();
+        peakTableBytes.set(0);
+        for (int k = 0; k <= MAX_TRACKED_LOCATIONS; k++) {
+            countByLocations.set(k, 0);
+            nanosByLocations.set(k, 0);
+            maxNanosByLocations.set(k, 0);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.logistics.routeoptimizer;
+
+/** Атрибуты JMX для {@link OptimizerMetrics}. */
+public interface OptimizerMetricsMBean {
+    long getSolves();
+
+    long getInfeasible();
+
+    long getCompactMicros();
+
+    long getFillMicros();
+
+    long getReconstructMicros();
+
+    long getStatesExpanded();
+
+    long getStatesPruned();
+
+    long getMemoHits();
+
+    long getPeakTableBytes();
+
+    /** Среднее время решения в микросекундах по числу локаций k (индекс массива). */
+    long[] getMeanSolveMicrosByLocations();
+
+    /** Наибольшее время решения в микросекундах по числу локаций k. */
+    long[] getMaxSolveMicrosByLocations();
+
+    void reset();
+}
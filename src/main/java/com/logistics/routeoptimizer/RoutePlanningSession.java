@@ -0,0 +1,140 @@
+package com.logistics.routeoptimizer;
+
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.solver.HeldKarpSolver;
+import com.logistics.routeoptimizer.solver.HeuristicSolver;
+import com.logistics.routeoptimizer.solver.RoutingProblem;
+import com.logistics.routeoptimizer.solver.TimeWindows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Маршрут одного курьера, в который заказы добавляются по одному.
+ *
+ * Пока локаций не больше порога точного решения, сессия хранит заполненную
+ * таблицу Хелда-Карпа: новая локация получает следующий индекс, и
+ * пересчитываются только подмножества с ней. Выше порога текущий маршрут
+ * служит стартовым для эвристики — новая локация вставляется в него, затем
+ * маршрут улучшается локальным поиском в пределах бюджета времени.
+ *
+ * Сессия не потокобезопасна.
+ */
+public class RoutePlanningSession {
+    private final DeliveryRouteOptimizer optimizer;
+    private int[] nodes;
+    private final List<List<Order>> ordersByLocation;
+    private RoutingProblem problem;
+    private HeldKarpSolver table;
+    private int[] order;
+
+    RoutePlanningSession(DeliveryRouteOptimizer optimizer, int[] nodes, List<List<Order>> ordersByLocation) {
+        this.optimizer = optimizer;
+        this.nodes = nodes;
+        this.ordersByLocation = ordersByLocation;
+        if (!ordersByLocation.isEmpty()) {
+            this.problem = optimizer.problem(nodes, TimeWindows.fromOrders(ordersByLocation, 0), 0);
+            resolve();
+        } else {
+            this.order = new int[0];
+        }
+    }
+
+    public void addOrder(Order order) {
+        int location = order.getLocation();
+        if (location >= optimizer.distances().size()) {
+            throw new IllegalArgumentException("Некорректная локация заказа: " + location);
+        }
+        for (int i = 1; i < nodes.length; i++) {
+            if (nodes[i] == location) {
+                addToLocation(i - 1, order);
+                return;
+            }
+        }
+        addLocation(order);
+    }
+
+    /** Текущий маршрут, начиная со стартовой локации, либо null, если уложиться в дедлайны не удалось. */
+    public List<Integer> getRoute() {
+        if (order == null) {
+            return null;
+        }
+        if (order.length == 0) {
+            return Collections.singletonList(nodes[0]);
+        }
+        List<Integer> route = new ArrayList<>(order.length + 1);
+        route.add(nodes[0]);
+        for (int location : order) {
+            route.add(nodes[location + 1]);
+        }
+        return route;
+    }
+
+    // Если у локации изменился только дедлайн и стал жёстче, множество маршрутов
+    // лишь сузилось: выдерживающий его прежний оптимум остаётся оптимумом.
+    // Таблица при любом изменении устаревает.
+    private void addToLocation(int location, Order added) {
+        ordersByLocation.get(location).add(added);
+        TimeWindows before = problem.windows();
+        TimeWindows after = TimeWindows.fromOrders(ordersByLocation, 0);
+        boolean sameStart = !before.hasMultipleWindows() && !after.hasMultipleWindows()
+                && before.ready(location) == after.ready(location)
+                && before.service(location) == after.service(location);
+        if (sameStart && before.deadline(location) == after.deadline(location)) {
+            return;
+        }
+        problem = optimizer.problem(nodes, after, 0);
+        table = null;
+        if (!sameStart || order == null || problem.routeTime(order) < 0) {
+            resolve();
+        }
+    }
+
+    private void addLocation(Order added) {
+        int k = ordersByLocation.size();
+        int[] extendedNodes = Arrays.copyOf(nodes, k + 2);
+        extendedNodes[k + 1] = added.getLocation();
+        List<Order> orders = new ArrayList<>();
+        orders.add(added);
+        ordersByLocation.add(orders);
+        RoutingProblem extended = optimizer.problem(extendedNodes, TimeWindows.fromOrders(ordersByLocation, 0), 0);
+        if (table != null && !samePrefix(extended, k + 1)) {
+            table = null;
+        }
+
+        nodes = extendedNodes;
+        problem = extended;
+        if (table != null && k + 1 <= optimizer.getExactThreshold()) {
+            table = table.extend(problem);
+            order = table.reconstruct();
+        } else {
+            resolve();
+        }
+    }
+
+    private void resolve() {
+        int k = ordersByLocation.size();
+        if (k <= optimizer.getExactThreshold()) {
+            table = new HeldKarpSolver(problem);
+            order = table.solve();
+            return;
+        }
+        table = null;
+        HeuristicSolver heuristic = new HeuristicSolver(problem, optimizer.getHeuristicBudgetMillis() * 1_000_000L);
+        order = order != null ? heuristic.solve(order) : heuristic.solve();
+    }
+
+    // Расстояния между прежними узлами не изменились (например, из-за updateEdge).
+    private boolean samePrefix(RoutingProblem extended, int m) {
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                if (problem.distance(i, j) != extended.distance(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package com.logistics.routeoptimizer;
+
+import com.logistics.routeoptimizer.model.OrderBatch;
+import com.logistics.routeoptimizer.solver.HeldKarpSolver;
+import com.logistics.routeoptimizer.solver.RoutingProblem;
+import com.logistics.routeoptimizer.solver.TimeWindows;
+import com.logistics.routeoptimizer.util.DistanceMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Рабочие массивы для {@link DeliveryRouteOptimizer#findDeliveryRoute(int, OrderBatch, int[])}.
+ *
+ * Заказы группируются по локации отметками в массивах на все вершины графа
+ * вместо HashMap. Для каждого числа локаций k задача ({@link RoutingProblem}
+ * поверх собственных массивов) и решатель создаются один раз, дальше
+ * массивы перезаписываются на месте. Таблица Хелда-Карпа общая и растёт
+ * до самого большого k. Пространство не потокобезопасно: оптимизатор
+ * выдаёт его одному вызову за раз.
+ */
+final class RouteWorkspace {
+    private final int[] mark;
+    private final int[] slotOf;
+    private int generation;
+
+    // Уникальные локации в порядке появления и их сводные ограничения.
+    private int[] locations = new int[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private int[] ready = new int[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private int[] deadlines = new int[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private long[] service = new long[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private int count;
+
+    private final int[] nodes = new int[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private final Slot[] slots = new Slot[HeldKarpSolver.MAX_LOCATIONS + 1];
+    private int[] table = new int[0];
+
+    RouteWorkspace(int vertices) {
+        this.mark = new int[vertices];
+        this.slotOf = new int[vertices];
+    }
+
+    /** Группирует заказы по локациям и возвращает число уникальных локаций. */
+    int group(OrderBatch orders) {
+        if (++generation == 0) {
+            Arrays.fill(mark, 0);
+            generation = 1;
+        }
+        count = 0;
+        for (int i = 0, m = orders.size(); i < m; i++) {
+            int location = orders.location(i);
+            int slot;
+            if (mark[location] == generation) {
+                slot = slotOf[location];
+                ready[slot] = Math.max(ready[slot], orders.readyTime(i));
+                deadlines[slot] = Math.min(deadlines[slot], orders.deadline(i));
+                service[slot] += orders.serviceTime(i);
+            } else {
+                slot = count++;
+                if (slot == locations.length) {
+                    grow();
+                }
+                mark[location] = generation;
+                slotOf[location] = slot;
+                locations[slot] = location;
+                ready[slot] = orders.readyTime(i);
+                deadlines[slot] = orders.deadline(i);
+                service[slot] = orders.serviceTime(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Точный маршрут по сгруппированным заказам: записывает старт и локации в
+     * route и возвращает длину маршрута либо -1, если маршрута нет.
+     * Требует count от 1 до {@link HeldKarpSolver#MAX_LOCATIONS}.
+     */
+    int solve(DistanceMatrix matrix, int start, int[] route) {
+        int k = count;
+        sortByLocation();
+        Slot slot = slots[k];
+        if (slot == null) {
+            slot = new Slot(k);
+            slots[k] = slot;
+        }
+        int size = HeldKarpSolver.tableSize(k);
+        if (table.length < size) {
+            // Решатели держат ссылку на прежнюю таблицу.
+            table = new int[size];
+            for (Slot s : slots) {
+                if (s != null) {
+                    s.solver = null;
+                }
+            }
+        }
+        if (slot.solver == null) {
+            slot.solver = new HeldKarpSolver(slot.problem, table);
+        }
+
+        nodes[0] = start;
+        for (int l = 0; l < k; l++) {
+            nodes[l + 1] = locations[l];
+            // Как в TimeWindows.fromOrders: непересекающиеся окна делают локацию недостижимой.
+            boolean feasible = ready[l] <= deadlines[l];
+            slot.ready[l] = feasible ? ready[l] : 0;
+            slot.deadlines[l] = feasible ? deadlines[l] : -1;
+            slot.service[l] = (int) Math.min(service[l], Integer.MAX_VALUE);
+        }
+        int stride = k + 1;
+        for (int i = 0; i < stride; i++) {
+            for (int j = 0; j < stride; j++) {
+                slot.distances[i * stride + j] = matrix.distance(nodes[i], nodes[j]);
+            }
+        }
+
+        slot.solver.fill();
+        if (!slot.solver.reconstruct(slot.order)) {
+            return -1;
+        }
+        route[0] = start;
+        for (int l = 0; l < k; l++) {
+            route[l + 1] = nodes[slot.order[l] + 1];
+        }
+        return k + 1;
+    }
+
+    // Локации по возрастанию, как у TreeMap в общем пути: при равных маршрутах ответы совпадают.
+    private void sortByLocation() {
+        for (int i = 1; i < count; i++) {
+            int location = locations[i];
+            int r = ready[i];
+            int d = deadlines[i];
+            long s = service[i];
+            int j = i - 1;
+            while (j >= 0 && locations[j] > location) {
+                locations[j + 1] = locations[j];
+                ready[j + 1] = ready[j];
+                deadlines[j + 1] = deadlines[j];
+                service[j + 1] = service[j];
+                j--;
+            }
+            locations[j + 1] = location;
+            ready[j + 1] = r;
+            deadlines[j + 1] = d;
+            service[j + 1] = s;
+        }
+    }
+
+    private void grow() {
+        int capacity = 2 * locations.length;
+        locations = Arrays.copyOf(locations, capacity);
+        ready = Arrays.copyOf(ready, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        service = Arrays.copyOf(service, capacity);
+    }
+
+    // Задача на k локаций поверх массивов, которые перезаписываются при каждом решении.
+    private static final class Slot {
+        private final int[] distances;
+        private final int[] ready;
+        private final int[] deadlines;
+        private final int[] service;
+        private final RoutingProblem problem;
+        private final int[] order;
+        private HeldKarpSolver solver;
+
+        Slot(int k) {
+            this.distances = new int[(k + 1) * (k + 1)];
+            this.ready = new int[k];
+            this.deadlines = new int[k];
+            this.service = new int[k];
+            this.problem = new RoutingProblem(distances, new TimeWindows(ready, deadlines, service));
+            this.order = new int[k];
+        }
+    }
+}
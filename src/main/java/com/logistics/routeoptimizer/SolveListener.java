@@ -0,0 +1,9 @@
+package com.logistics.routeoptimizer;
+
+/**
+ * Получает {@link SolveStats} после каждого построения маршрута.
+ * Вызывается в потоке решения, поэтому должен работать быстро и быть потокобезопасным.
+ */
+public interface SolveListener {
+    void onSolve(SolveStats stats);
+}
@@ -0,0 +1,27 @@
+package com.logistics.routeoptimizer;
+
+import java.util.List;
+
+/** Маршрут вместе с тем, насколько ему можно доверять. */
+public final class SolveResult {
+    private final SolveStatus status;
+    private final List<Integer> route;
+
+    SolveResult(SolveStatus status, List<Integer> route) {
+        this.status = status;
+        this.route = route;
+    }
+
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /** Маршрут, начиная со старта; null для INFEASIBLE и TIMED_OUT. */
+    public List<Integer> getRoute() {
+        return route;
+    }
+
+    public boolean hasRoute() {
+        return route != null;
+    }
+}
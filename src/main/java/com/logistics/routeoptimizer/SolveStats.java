@@ -0,0 +1,104 @@
+package com.logistics.routeoptimizer;
+
+/**
+ * Что происходило при одном построении маршрута. Собирается, только если
+ * оптимизатору задан {@link SolveListener}; иначе решатели работают без учёта.
+ *
+ * Фазы: сжатие задачи до подматрицы старта и локаций заказов, заполнение
+ * (таблица Хелда-Карпа, поиск с отсечениями или эвристика) и восстановление
+ * порядка по таблице. Матрица кратчайших путей строится один раз на граф и
+ * в фазы не входит — её попадания видны в {@link com.logistics.routeoptimizer.util.DistanceMatrixCache}.
+ */
+public final class SolveStats {
+    private final SolverMode mode;
+    private final int locations;
+    private long compactNanos;
+    private long fillNanos;
+    private long reconstructNanos;
+    private long statesExpanded;
+    private long statesPruned;
+    private long memoHits;
+    private long tableBytes;
+    private boolean feasible;
+
+    SolveStats(SolverMode mode, int locations) {
+        this.mode = mode;
+        this.locations = locations;
+    }
+
+    /** Фактический алгоритм: AUTO уже заменён на выбранный. */
+    public SolverMode getMode() {
+        return mode;
+    }
+
+    /** Число различных локаций заказов k. */
+    public int getLocations() {
+        return locations;
+    }
+
+    public long getCompactNanos() {
+        return compactNanos;
+    }
+
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    public long getTotalNanos() {
+        return compactNanos + fillNanos + reconstructNanos;
+    }
+
+    /** Состояния, из которых решение пошло дальше (достижимые ячейки таблицы, узлы поиска). */
+    public long getStatesExpanded() {
+        return statesExpanded;
+    }
+
+    /** Состояния, отброшенные ограничениями по времени или нижней оценкой. */
+    public long getStatesPruned() {
+        return statesPruned;
+    }
+
+    /** Повторные приходы в уже просмотренное состояние (поиск с отсечениями). */
+    public long getMemoHits() {
+        return memoHits;
+    }
+
+    /** Память таблицы решения в байтах. */
+    public long getTableBytes() {
+        return tableBytes;
+    }
+
+    public boolean isFeasible() {
+        return feasible;
+    }
+
+    void setCompactNanos(long compactNanos) {
+        this.compactNanos = compactNanos;
+    }
+
+    void setFillNanos(long fillNanos) {
+        this.fillNanos = fillNanos;
+    }
+
+    void setReconstructNanos(long reconstructNanos) {
+        this.reconstructNanos = reconstructNanos;
+    }
+
+    void setStates(long expanded, long pruned, long memoHits) {
+        this.statesExpanded = expanded;
+        this.statesPruned = pruned;
+        this.memoHits = memoHits;
+    }
+
+    void setTableBytes(long tableBytes) {
+        this.tableBytes = tableBytes;
+    }
+
+    void setFeasible(boolean feasible) {
+        this.feasible = feasible;
+    }
+}
@@ -0,0 +1,13 @@
+package com.logistics.routeoptimizer;
+
+/** Итог построения маршрута с отменой, см. {@link SolveResult}. */
+public enum SolveStatus {
+    /** Маршрут найден точным решателем и кратчайший. */
+    OPTIMAL,
+    /** Маршрут допустим, но оптимальность не доказана: эвристика или лучший найденный до отмены. */
+    FEASIBLE,
+    /** Доказано, что выдержать все ограничения по времени невозможно. */
+    INFEASIBLE,
+    /** Маршрут не найден, а невозможность не доказана: решение прервано или эвристика не справилась. */
+    TIMED_OUT
+}
@@ -0,0 +1,39 @@
+package com.logistics.routeoptimizer;
+
+/**
+ * Алгоритм, которым {@link DeliveryRouteOptimizer} ищет маршрут.
+ */
+public enum SolverMode {
+    /** ITERATIVE, пока число локаций не больше порога точного решения, иначе HEURISTIC. */
+    AUTO,
+    /** Итеративный Хелд-Карп по времени прибытия, таблица k * 2^(k-1). */
+    ITERATIVE,
+    /**
+     * Тот же Хелд-Карп, слои подмножеств считаются параллельно в общем
+     * ForkJoinPool ({@link com.logistics.routeoptimizer.util.TaskExecutors#forkJoinPool}).
+     */
+    PARALLEL,
+    /**
+     * Исходный рекурсивный dpSolve с мемоизацией по (узел сжатой задачи, посещённые).
+     * Только для времени в пути, не зависящего от времени выезда: с
+     * {@link com.logistics.routeoptimizer.util.TimeDependentDistanceMatrix}
+     * {@link DeliveryRouteOptimizer#setSolverMode} его не принимает.
+     */
+    RECURSIVE,
+    /** Вставка по дедлайнам с улучшением 2-opt и Or-opt; быстро, но без гарантии оптимальности. */
+    HEURISTIC,
+    /** Точный поиск в глубину с отсечением по дедлайнам и нижней оценке; хорош при жёстких дедлайнах. */
+    BRANCH_AND_BOUND,
+    /**
+     * Наименьшая суммарная длина вместо наименьшего времени окончания — цель
+     * RECURSIVE, решённая точно: состояния хранят недоминируемые метки
+     * (длина, время). Без готовности и обслуживания цели совпадают.
+     *
+     * Ограничения: не больше {@link com.logistics.routeoptimizer.solver.LabelSettingSolver#MAX_LOCATIONS}
+     * уникальных локаций в запросе (иначе поиск маршрута выбрасывает
+     * IllegalArgumentException) и только время в пути, не зависящее от времени
+     * выезда: с {@link com.logistics.routeoptimizer.util.TimeDependentDistanceMatrix}
+     * {@link DeliveryRouteOptimizer#setSolverMode} его не принимает.
+     */
+    LABEL_SETTING
+}
@@ -1,18 +1,60 @@
 package com.logistics.routeoptimizer.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 public class Order {
     private final int location; 
     private final int deadline; 
+    private final int readyTime;
+    private final int serviceTime;
+    private final List<TimeWindow> timeWindows;
 
     public Order(int location, int deadline) {
+        this(location, 0, checkDeadline(location, deadline), 0);
+    }
+
+    /** Обслуживание начинается в [readyTime, deadline] и длится serviceTime. */
+    public Order(int location, int readyTime, int deadline, int serviceTime) {
+        this(location, Collections.singletonList(new TimeWindow(readyTime, deadline)), serviceTime);
+    }
+
+    /** Обслуживание начинается в одном из непересекающихся окон и длится serviceTime. */
+    public Order(int location, List<TimeWindow> timeWindows, int serviceTime) {
+        if (location < 0) {
+            throw new IllegalArgumentException("Индекс локации не может быть отрицательным");
+        }
+        if (serviceTime < 0) {
+            throw new IllegalArgumentException("Время обслуживания не может быть отрицательным");
+        }
+        if (timeWindows == null || timeWindows.isEmpty()) {
+            throw new IllegalArgumentException("У заказа должно быть хотя бы одно окно");
+        }
+        List<TimeWindow> sorted = new ArrayList<>(timeWindows);
+        sorted.sort(Comparator.comparingInt(TimeWindow::getStart));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getStart() <= sorted.get(i - 1).getEnd()) {
+                throw new IllegalArgumentException("Окна заказа пересекаются");
+            }
+        }
+        this.location = location;
+        this.readyTime = sorted.get(0).getStart();
+        this.deadline = sorted.get(sorted.size() - 1).getEnd();
+        this.serviceTime = serviceTime;
+        this.timeWindows = Collections.unmodifiableList(sorted);
+    }
+
+    // Проверки конструктора (location, deadline) в прежнем порядке и с прежними сообщениями.
+    private static int checkDeadline(int location, int deadline) {
         if (location < 0) {
             throw new IllegalArgumentException("Индекс локации не может быть отрицательным");
         }
         if (deadline < 0) {
             throw new IllegalArgumentException("Дедлайн не может быть отрицательным");
         }
-        this.location = location;
-        this.deadline = deadline;
+        return deadline;
     }
 
     public int getLocation() {
@@ -22,4 +64,16 @@ public class Order {
     public int getDeadline() {
         return deadline;
     }
-}
\ No newline at end of file
+
+    public int getReadyTime() {
+        return readyTime;
+    }
+
+    public int getServiceTime() {
+        return serviceTime;
+    }
+
+    public List<TimeWindow> getTimeWindows() {
+        return timeWindows;
+    }
+}
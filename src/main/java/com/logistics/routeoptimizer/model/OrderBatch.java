@@ -0,0 +1,106 @@
+package com.logistics.routeoptimizer.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Заказы в параллельных массивах примитивов — без объекта {@link Order} на
+ * каждый заказ. Пакет рассчитан на повторное использование: {@link #clear()}
+ * сбрасывает размер, но сохраняет массивы, так что после прогрева
+ * заполнение не выделяет память. У заказа одно окно [readyTime, deadline].
+ */
+public class OrderBatch {
+    private int[] locations;
+    private int[] readyTimes;
+    private int[] deadlines;
+    private int[] serviceTimes;
+    private int size;
+
+    public OrderBatch() {
+        this(16);
+    }
+
+    public OrderBatch(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Ёмкость пакета не может быть отрицательной");
+        }
+        this.locations = new int[capacity];
+        this.readyTimes = new int[capacity];
+        this.deadlines = new int[capacity];
+        this.serviceTimes = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Ограничения те же, что у {@link Order#Order(int, int)}. */
+    public void add(int location, int deadline) {
+        if (location < 0) {
+            throw new IllegalArgumentException("Индекс локации не может быть отрицательным");
+        }
+        if (deadline < 0) {
+            throw new IllegalArgumentException("Дедлайн не может быть отрицательным");
+        }
+        add(location, 0, deadline, 0);
+    }
+
+    /** Ограничения те же, что у {@link Order#Order(int, int, int, int)}. */
+    public void add(int location, int readyTime, int deadline, int serviceTime) {
+        if (location < 0) {
+            throw new IllegalArgumentException("Индекс локации не может быть отрицательным");
+        }
+        if (serviceTime < 0) {
+            throw new IllegalArgumentException("Время обслуживания не может быть отрицательным");
+        }
+        if (readyTime < 0) {
+            throw new IllegalArgumentException("Начало окна не может быть отрицательным");
+        }
+        if (deadline < readyTime) {
+            throw new IllegalArgumentException("Окно заканчивается раньше, чем начинается");
+        }
+        if (size == locations.length) {
+            int capacity = Math.max(16, 2 * size);
+            locations = Arrays.copyOf(locations, capacity);
+            readyTimes = Arrays.copyOf(readyTimes, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            serviceTimes = Arrays.copyOf(serviceTimes, capacity);
+        }
+        locations[size] = location;
+        readyTimes[size] = readyTime;
+        deadlines[size] = deadline;
+        serviceTimes[size] = serviceTime;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int location(int i) {
+        return locations[Objects.checkIndex(i, size)];
+    }
+
+    public int readyTime(int i) {
+        return readyTimes[Objects.checkIndex(i, size)];
+    }
+
+    public int deadline(int i) {
+        return deadlines[Objects.checkIndex(i, size)];
+    }
+
+    public int serviceTime(int i) {
+        return serviceTimes[Objects.checkIndex(i, size)];
+    }
+
+    /** Те же заказы объектами {@link Order}. */
+    public List<Order> toOrders() {
+        List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order(locations[i], readyTimes[i], deadlines[i], serviceTimes[i]));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,24 @@
+package com.logistics.routeoptimizer.model;
+
+import java.util.List;
+
+public class RouteRequest {
+    private final int start;
+    private final List<Order> orders;
+
+    public RouteRequest(int start, List<Order> orders) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Список заказов не может быть null");
+        }
+        this.start = start;
+        this.orders = orders;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+}
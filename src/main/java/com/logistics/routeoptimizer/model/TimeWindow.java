@@ -0,0 +1,26 @@
+package com.logistics.routeoptimizer.model;
+
+/** Интервал [start, end], в который можно начать обслуживание заказа. */
+public class TimeWindow {
+    private final int start;
+    private final int end;
+
+    public TimeWindow(int start, int end) {
+        if (start < 0) {
+            throw new IllegalArgumentException("Начало окна не может быть отрицательным");
+        }
+        if (end < start) {
+            throw new IllegalArgumentException("Окно заканчивается раньше, чем начинается");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+}
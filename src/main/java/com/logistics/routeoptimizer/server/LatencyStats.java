@@ -0,0 +1,56 @@
+package com.logistics.routeoptimizer.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек в микросекундах без блокировок: корзина b считает
+ * задержки из [2^(b-1), 2^b). Перцентили поэтому приближённые — верхняя
+ * граница корзины, не больше чем вдвое выше точного значения.
+ */
+public class LatencyStats {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value)));
+        total.incrementAndGet();
+        sumMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long meanMicros() {
+        long n = total.get();
+        return n == 0 ? 0 : sumMicros.get() / n;
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    /** Верхняя граница корзины, в которую попадает доля quantile (0..1] запросов. */
+    public long percentileMicros(double quantile) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(b == 0 ? 0 : (1L << b) - 1, maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+}
@@ -0,0 +1,197 @@
+package com.logistics.routeoptimizer.server;
+
+import com.logistics.routeoptimizer.SolverMode;
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.model.TimeWindow;
+import com.logistics.routeoptimizer.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Потокобезопасный LRU-кэш построенных маршрутов.
+ *
+ * Ключ — версия графа, настройки решателя, от которых зависит ответ (режим,
+ * порог точного решения и бюджет эвристики: в HEURISTIC и в AUTO выше порога
+ * маршрут зависит от бюджета), старт и канонический вид набора заказов: заказы
+ * сортируются, поэтому порядок в запросе не важен. Как и в
+ * {@link com.logistics.routeoptimizer.util.DistanceMatrixCache}, ключ хранит
+ * 64-битный хэш, а при совпадении содержимое сравнивается целиком. Запись
+ * появляется до начала решения, поэтому одинаковые одновременные запросы
+ * ждут одного решения, а не запускают своё. Невозможный маршрут (null)
+ * кэшируется так же, как найденный; ошибка не кэшируется.
+ */
+public class RouteCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long coalesced;
+    private long misses;
+    private long evictions;
+
+    public RouteCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    public List<Integer> get(long graphVersion, SolverMode mode, int exactThreshold, long heuristicBudgetMillis,
+                             int start, List<Order> orders, Callable<List<Integer>> solve) {
+        int[] content = canonical(mode, exactThreshold, heuristicBudgetMillis, start, orders);
+        Key key = new Key(graphVersion, Hashing.contentHash(content));
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !Arrays.equals(entry.content, content)) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                entry = new Entry(content, solve);
+                entries.put(key, entry);
+                evict();
+                owner = true;
+            } else if (entry.task.isDone()) {
+                hits++;
+            } else {
+                coalesced++;
+            }
+        }
+
+        if (owner) {
+            entry.task.run();
+        }
+        try {
+            return entry.task.get();
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Ошибка при построении маршрута", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание маршрута прервано", e);
+        }
+    }
+
+    /** Ответы из готовых записей. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Запросы, дождавшиеся решения, начатого другим запросом. */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // Режим, порог, бюджет (два int), старт, затем для каждого заказа по порядку: локация, обслуживание, число окон и их границы.
+    static int[] canonical(SolverMode mode, int exactThreshold, long heuristicBudgetMillis, int start, List<Order> orders) {
+        List<int[]> encoded = new ArrayList<>(orders.size());
+        int length = 5;
+        for (Order order : orders) {
+            List<TimeWindow> windows = order.getTimeWindows();
+            int[] e = new int[3 + 2 * windows.size()];
+            e[0] = order.getLocation();
+            e[1] = order.getServiceTime();
+            e[2] = windows.size();
+            for (int w = 0; w < windows.size(); w++) {
+                e[3 + 2 * w] = windows.get(w).getStart();
+                e[4 + 2 * w] = windows.get(w).getEnd();
+            }
+            encoded.add(e);
+            length += e.length;
+        }
+        encoded.sort(Arrays::compare);
+        int[] content = new int[length];
+        content[0] = mode.ordinal();
+        content[1] = exactThreshold;
+        content[2] = (int) (heuristicBudgetMillis >>> 32);
+        content[3] = (int) heuristicBudgetMillis;
+        content[4] = start;
+        int pos = 5;
+        for (int[] e : encoded) {
+            System.arraycopy(e, 0, content, pos, e.length);
+            pos += e.length;
+        }
+        return content;
+    }
+
+    private static final class Entry {
+        private final int[] content;
+        private final FutureTask<List<Integer>> task;
+
+        Entry(int[] content, Callable<List<Integer>> solve) {
+            this.content = content;
+            // Один и тот же список получают все ждавшие и все будущие попадания.
+            this.task = new FutureTask<>(() -> {
+                List<Integer> route = solve.call();
+                return route == null ? null : Collections.unmodifiableList(route);
+            });
+        }
+    }
+
+    private static final class Key {
+        private final long graphVersion;
+        private final long hash;
+
+        Key(long graphVersion, long hash) {
+            this.graphVersion = graphVersion;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return graphVersion == other.graphVersion && hash == other.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash) * 31 + Long.hashCode(graphVersion);
+        }
+    }
+}
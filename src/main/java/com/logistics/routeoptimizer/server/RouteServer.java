@@ -0,0 +1,196 @@
+package com.logistics.routeoptimizer.server;
+
+import com.logistics.routeoptimizer.DeliveryRouteOptimizer;
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.model.TimeWindow;
+import com.logistics.routeoptimizer.util.Json;
+import com.logistics.routeoptimizer.util.TaskExecutors;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локальный HTTP-сервис построения маршрутов на встроенном сервере JDK.
+ *
+ * POST /route с телом
+ * {"start":0,"orders":[{"location":3,"deadline":40},{"location":5,"readyTime":10,"deadline":60,"serviceTime":5}]}
+ * отвечает {"route":[0,3,5],"micros":812}; route равен null, если дедлайны
+ * выдержать невозможно. Вместо readyTime/deadline заказ может задать
+ * "timeWindows":[[0,20],[40,60]]. GET /metrics — счётчики и задержки.
+ *
+ * Ответы проходят через {@link RouteCache}: повтор запроса с тем же
+ * стартом и набором заказов на той же версии графа и с теми же настройками
+ * решателя не решается заново, а
+ * одинаковые одновременные запросы ждут одного решения. Запросы
+ * обрабатываются на виртуальных потоках либо на пуле по числу процессоров
+ * ({@link TaskExecutors}); сервер слушает только loopback.
+ */
+public class RouteServer {
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final DeliveryRouteOptimizer optimizer;
+    private final RouteCache cache;
+    private final LatencyStats latency = new LatencyStats();
+    private final AtomicLong errors = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RouteServer(DeliveryRouteOptimizer optimizer, int cacheEntries) {
+        this.optimizer = optimizer;
+        this.cache = new RouteCache(cacheEntries);
+    }
+
+    /** Запускает сервер на порту port (0 — любой свободный) и возвращает фактический адрес. */
+    public synchronized InetSocketAddress start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Сервер уже запущен");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = TaskExecutors.newTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/route", this::handleRoute);
+        server.createContext("/metrics", this::handleMetrics);
+        server.start();
+        return server.getAddress();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    /** Маршрут через кэш; то же, что делает POST /route. */
+    public List<Integer> route(int start, List<Order> orders) {
+        return cache.get(optimizer.getGraphVersion(), optimizer.getSolverMode(), optimizer.getExactThreshold(),
+                optimizer.getHeuristicBudgetMillis(), start, orders, () -> optimizer.findDeliveryRoute(start, orders));
+    }
+
+    public RouteCache getCache() {
+        return cache;
+    }
+
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    private void handleRoute(HttpExchange exchange) throws IOException {
+        long started = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "{\"error\":\"Нужен метод POST\"}");
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "{\"error\":\"Слишком большое тело запроса\"}");
+                return;
+            }
+            List<Integer> route;
+            try {
+                Map<String, Object> request = Json.object(Json.parse(new String(body, StandardCharsets.UTF_8)), "запрос");
+                int start = Json.integer(request.get("start"), "start");
+                List<Order> orders = orders(request.get("orders"));
+                route = route(start, orders);
+            } catch (IllegalArgumentException e) {
+                errors.incrementAndGet();
+                respond(exchange, 400, "{\"error\":" + Json.quote(e.getMessage()) + "}");
+                return;
+            }
+            long micros = (System.nanoTime() - started) / 1000;
+            latency.record(micros);
+            String json = route == null ? "null" : route.toString().replace(" ", "");
+            respond(exchange, 200, "{\"route\":" + json + ",\"micros\":" + micros + "}");
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            respond(exchange, 500, "{\"error\":" + Json.quote(String.valueOf(e.getMessage())) + "}");
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        String json = "{\"routed\":" + latency.count()
+                + ",\"errors\":" + errors.get()
+                + ",\"cacheHits\":" + cache.getHits()
+                + ",\"coalesced\":" + cache.getCoalesced()
+                + ",\"solves\":" + cache.getMisses()
+                + ",\"cacheSize\":" + cache.size()
+                + ",\"evictions\":" + cache.getEvictions()
+                + ",\"latencyMicros\":{\"mean\":" + latency.meanMicros()
+                + ",\"p50\":" + latency.percentileMicros(0.5)
+                + ",\"p99\":" + latency.percentileMicros(0.99)
+                + ",\"max\":" + latency.maxMicros() + "}}";
+        respond(exchange, 200, json);
+    }
+
+    private static List<Order> orders(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Поле orders должно быть массивом");
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            Map<String, Object> order = Json.object(item, "заказ");
+            int location = Json.integer(order.get("location"), "location");
+            int service = order.containsKey("serviceTime") ? Json.integer(order.get("serviceTime"), "serviceTime") : 0;
+            if (order.containsKey("timeWindows")) {
+                orders.add(new Order(location, windows(order.get("timeWindows")), service));
+            } else {
+                int ready = order.containsKey("readyTime") ? Json.integer(order.get("readyTime"), "readyTime") : 0;
+                orders.add(new Order(location, ready, Json.integer(order.get("deadline"), "deadline"), service));
+            }
+        }
+        return orders;
+    }
+
+    private static List<TimeWindow> windows(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Поле timeWindows должно быть массивом пар");
+        }
+        List<TimeWindow> windows = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            if (!(item instanceof List) || ((List<?>) item).size() != 2) {
+                throw new IllegalArgumentException("Окно задаётся парой [начало, конец]");
+            }
+            List<?> pair = (List<?>) item;
+            windows.add(new TimeWindow(Json.integer(pair.get(0), "timeWindows"), Json.integer(pair.get(1), "timeWindows")));
+        }
+        return windows;
+    }
+
+    // null, если тело длиннее MAX_BODY_BYTES.
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            if (body.size() + read > MAX_BODY_BYTES) {
+                return null;
+            }
+            body.write(chunk, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.logistics.routeoptimizer.solver;
+
+/**
+ * Точный поиск в глубину с отсечениями. Ветка отбрасывается, если
+ * <ul>
+ *     <li>хотя бы одна непосещённая локация уже не достижима к своему дедлайну
+ *     даже напрямую (расстояния — кратчайшие пути, так что прямой путь самый быстрый);</li>
+ *     <li>нижняя оценка — текущее время плюс сумма минимальных входящих рёбер
+ *     и времени обслуживания непосещённых локаций — не лучше найденного маршрута;</li>
+ *     <li>в то же состояние (посещённые, текущая локация) поиск уже приходил
+ *     не позже — это запоминается в таблице фиксированного размера.</li>
+ * </ul>
+ * Начальную верхнюю границу даёт {@link HeuristicSolver}. На задачах с жёсткими
+ * дедлайнами большая часть дерева отсекается сразу, и оптимальность или
+ * невозможность доказываются намного быстрее заполнения всей таблицы 2^k.
+ */
+public class BranchAndBoundSolver {
+    private static final long SEED_BUDGET_NANOS = 5_000_000L;
+    private static final int MEMO_BITS = 20;
+    private static final int MEMO_MAX_LOCATIONS = 57;
+    private static final int CHECK_INTERVAL = 1 << 12;
+
+    private final RoutingProblem problem;
+    private final int k;
+    private final int stride;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final int[] service;
+    private final TimeWindows windows;
+
+    private final boolean[] visited;
+    private final int[] path;
+    private final int[][] children;
+    private final long[] memoKeys;
+    private final long[] memoTimes;
+    private int[] bestPath;
+    private long bestTime;
+    private long expanded;
+    private long pruned;
+    private long memoHits;
+    private CancellationToken token = CancellationToken.NONE;
+    private boolean stopped;
+    private int ticks;
+
+    public BranchAndBoundSolver(RoutingProblem problem) {
+        this.problem = problem;
+        this.k = problem.size();
+        this.stride = k + 1;
+        this.distances = problem.distances();
+        this.windows = problem.windows();
+        this.deadlines = windows.deadlines;
+        this.service = windows.service;
+        this.visited = new boolean[k];
+        this.path = new int[k];
+        this.children = new int[k][k];
+        boolean memo = k <= MEMO_MAX_LOCATIONS;
+        this.memoKeys = memo ? new long[1 << MEMO_BITS] : null;
+        this.memoTimes = memo ? new long[1 << MEMO_BITS] : null;
+    }
+
+    public int[] solve() {
+        return solve(new int[0]);
+    }
+
+    /** Начальную верхнюю границу эвристика строит, улучшая initialOrder. */
+    public int[] solve(int[] initialOrder) {
+        return solve(initialOrder, CancellationToken.NONE);
+    }
+
+    /**
+     * При отмене возвращает лучший найденный к этому моменту маршрут (или
+     * null); доказан ли результат, сообщает {@link #isComplete()}.
+     */
+    public int[] solve(int[] initialOrder, CancellationToken token) {
+        this.token = token;
+        stopped = false;
+        bestPath = null;
+        bestTime = Long.MAX_VALUE;
+        expanded = 0;
+        pruned = 0;
+        memoHits = 0;
+        int[] seed = new HeuristicSolver(problem, SEED_BUDGET_NANOS).solve(initialOrder, token);
+        long seedTime = seed != null ? problem.routeTime(seed) : -1;
+        if (seedTime >= 0) {
+            bestPath = seed;
+            bestTime = seedTime;
+        }
+        search(0, 0, 0, 0L);
+        return bestPath;
+    }
+
+    /** Был ли последний {@link #solve} доведён до конца, то есть результат доказан. */
+    public boolean isComplete() {
+        return !stopped;
+    }
+
+    /** Состояния последнего {@link #solve}, из которых поиск пошёл дальше. */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /** Состояния и переходы, отброшенные по дедлайнам или нижней оценке. */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /** Состояния, отброшенные таблицей уже просмотренных. */
+    public long getMemoHits() {
+        return memoHits;
+    }
+
+    /** Память таблицы просмотренных состояний. */
+    public long memoBytes() {
+        return memoKeys == null ? 0 : 16L * memoKeys.length;
+    }
+
+    private void search(int depth, int node, long time, long mask) {
+        if (depth == k) {
+            if (time < bestTime) {
+                bestTime = time;
+                bestPath = path.clone();
+            }
+            return;
+        }
+        if (stopped || (++ticks & (CHECK_INTERVAL - 1)) == 0 && token.isCancelled()) {
+            stopped = true;
+            return;
+        }
+        if (seenEarlier(mask, node, time)) {
+            memoHits++;
+            return;
+        }
+        if (!canStillReachAll(node, time) || lowerBound(node, time) >= bestTime) {
+            pruned++;
+            return;
+        }
+        expanded++;
+
+        int[] order = children[depth];
+        int count = 0;
+        for (int l = 0; l < k; l++) {
+            if (!visited[l]) {
+                order[count++] = l;
+            }
+        }
+        sortByDistance(order, count, node);
+
+        for (int c = 0; c < count; c++) {
+            int l = order[c];
+            long finish = windows.depart(l, problem.arrival(node, l + 1, time));
+            if (finish == TimeWindows.LATE || finish >= bestTime) {
+                pruned++;
+                continue;
+            }
+            visited[l] = true;
+            path[depth] = l;
+            search(depth + 1, l + 1, finish, mask | (1L << l));
+            visited[l] = false;
+        }
+    }
+
+    // Поддерево из того же состояния с не более поздним временем уже просмотрено.
+    private boolean seenEarlier(long mask, int node, long time) {
+        if (memoKeys == null) {
+            return false;
+        }
+        long key = (mask << 6 | node) + 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - MEMO_BITS));
+        if (memoKeys[slot] == key && memoTimes[slot] <= time) {
+            return true;
+        }
+        memoKeys[slot] = key;
+        memoTimes[slot] = time;
+        return false;
+    }
+
+    private boolean canStillReachAll(int node, long time) {
+        int row = node * stride;
+        for (int l = 0; l < k; l++) {
+            if (!visited[l] && time + distances[row + l + 1] > deadlines[l]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // В каждую непосещённую локацию придётся войти хотя бы по одному ребру и обслужить её.
+    // При зависящем от времени пути distances — минимум по корзинам, оценка остаётся нижней.
+    private long lowerBound(int node, long time) {
+        long bound = time;
+        for (int l = 0; l < k; l++) {
+            if (visited[l]) {
+                continue;
+            }
+            int column = l + 1;
+            long minIn = distances[node * stride + column];
+            for (int x = 0; x < k; x++) {
+                if (x != l && !visited[x]) {
+                    minIn = Math.min(minIn, distances[(x + 1) * stride + column]);
+                }
+            }
+            bound += minIn + service[l];
+        }
+        return bound;
+    }
+
+    private void sortByDistance(int[] order, int count, int node) {
+        int row = node * stride;
+        for (int i = 1; i < count; i++) {
+            int l = order[i];
+            int d = distances[row + l + 1];
+            int j = i - 1;
+            while (j >= 0 && distances[row + order[j] + 1] > d) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = l;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.logistics.routeoptimizer.solver;
+
+/**
+ * Кооперативная отмена решения: решатели периодически спрашивают
+ * {@link #isCancelled()} в своих циклах и, получив true, останавливаются,
+ * сохранив лучший найденный к этому моменту маршрут. Срабатывает по
+ * {@link #cancel()} из любого потока либо по истечении срока.
+ */
+public final class CancellationToken {
+    /** Никогда не срабатывает; решатели с ним ведут себя как без отмены. */
+    public static final CancellationToken NONE = new CancellationToken(false, 0);
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private CancellationToken(boolean hasDeadline, long deadlineNanos) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /** Срабатывает только по {@link #cancel()}. */
+    public static CancellationToken manual() {
+        return new CancellationToken(false, 0);
+    }
+
+    /** Срабатывает через timeoutMillis от момента создания либо раньше по {@link #cancel()}. */
+    public static CancellationToken withTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Срок не может быть отрицательным");
+        }
+        return new CancellationToken(true, System.nanoTime() + timeoutMillis * 1_000_000L);
+    }
+
+    public void cancel() {
+        if (this == NONE) {
+            throw new UnsupportedOperationException("CancellationToken.NONE нельзя отменить");
+        }
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.ArrayDeque;
+
+/**
+ * Пул буферов для таблиц динамики. Параллельные решения на одном графе
+ * берут таблицы отсюда и возвращают их, вместо того чтобы выделять по
+ * мегабайтам на каждый вызов. Хранится не больше maxBuffers таблиц.
+ */
+public class DpBufferPool {
+    private final int maxBuffers;
+    private final ArrayDeque<int[]> buffers = new ArrayDeque<>();
+
+    public DpBufferPool(int maxBuffers) {
+        if (maxBuffers < 0) {
+            throw new IllegalArgumentException("Размер пула не может быть отрицательным");
+        }
+        this.maxBuffers = maxBuffers;
+    }
+
+    /** Буфер длиной не меньше size; содержимое не очищается. */
+    public synchronized int[] acquire(int size) {
+        int[] best = null;
+        for (int[] buffer : buffers) {
+            if (buffer.length >= size && (best == null || buffer.length < best.length)) {
+                best = buffer;
+            }
+        }
+        if (best != null) {
+            buffers.remove(best);
+            return best;
+        }
+        return new int[size];
+    }
+
+    public synchronized void release(int[] buffer) {
+        if (buffers.size() < maxBuffers) {
+            buffers.push(buffer);
+        } else if (maxBuffers > 0) {
+            int[] smallest = buffer;
+            for (int[] pooled : buffers) {
+                if (pooled.length < smallest.length) {
+                    smallest = pooled;
+                }
+            }
+            if (smallest != buffer) {
+                buffers.remove(smallest);
+                buffers.push(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.logistics.routeoptimizer.solver;
+
+/**
+ * Отвечает только на вопрос «можно ли уложиться во все дедлайны», не строя
+ * кратчайший маршрут. Проверки идут от дешёвых к дорогим:
+ * <ol>
+ *     <li>каждая локация достижима напрямую со старта к своему дедлайну — O(k);</li>
+ *     <li>каждую пару локаций можно посетить хотя бы в одном порядке — O(k^2);</li>
+ *     <li>вставка по дедлайнам ({@link HeuristicSolver} без улучшений) нашла допустимый порядок;</li>
+ *     <li>точная динамика по самому раннему окончанию обслуживания: от живых состояний вперёд,
+ *     без таблицы восстановления; подмножества без живых состояний пропускаются
+ *     по битовой маске, а ответ «да» возвращается, как только достигнуто полное множество.</li>
+ * </ol>
+ * Обычные запросы допуска заказа решаются на первых трёх шагах за микросекунды.
+ */
+public class FeasibilityChecker {
+    private final RoutingProblem problem;
+    private final int k;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final TimeWindows windows;
+
+    public FeasibilityChecker(RoutingProblem problem) {
+        this.problem = problem;
+        this.k = problem.size();
+        this.distances = problem.distances();
+        this.windows = problem.windows();
+        this.deadlines = windows.deadlines;
+    }
+
+    public boolean isFeasible() {
+        if (k == 0) {
+            return true;
+        }
+        if (!directlyReachable() || hasPairConflict()) {
+            return false;
+        }
+        if (k == 1) {
+            return true;
+        }
+        if (new HeuristicSolver(problem, 0).solve() != null) {
+            return true;
+        }
+        if (k > HeldKarpSolver.MAX_LOCATIONS) {
+            return new BranchAndBoundSolver(problem).solve() != null;
+        }
+        return reachableDp();
+    }
+
+    private boolean directlyReachable() {
+        for (int l = 0; l < k; l++) {
+            if (distances[l + 1] > deadlines[l]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasPairConflict() {
+        for (int a = 0; a < k; a++) {
+            long leaveA = windows.depart(a, problem.arrival(0, a + 1, 0));
+            for (int b = a + 1; b < k; b++) {
+                long leaveB = windows.depart(b, problem.arrival(0, b + 1, 0));
+                boolean aFirst = leaveA != TimeWindows.LATE
+                        && windows.depart(b, problem.arrival(a + 1, b + 1, leaveA)) != TimeWindows.LATE;
+                boolean bFirst = leaveB != TimeWindows.LATE
+                        && windows.depart(a, problem.arrival(b + 1, a + 1, leaveB)) != TimeWindows.LATE;
+                if (!aFirst && !bFirst) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean reachableDp() {
+        int full = (1 << k) - 1;
+        int[] live = new int[1 << k];
+        int[] departure = new int[HeldKarpSolver.tableSize(k)];
+        for (int l = 0; l < k; l++) {
+            long leave = windows.depart(l, problem.arrival(0, l + 1, 0));
+            if (leave != TimeWindows.LATE && leave < Integer.MAX_VALUE) {
+                live[1 << l] = 1 << l;
+                departure[HeldKarpSolver.index(k, 1 << l, l)] = (int) leave;
+            }
+        }
+        for (int subset = 1; subset < full; subset++) {
+            int ends = live[subset];
+            for (; ends != 0; ends &= ends - 1) {
+                int j = Integer.numberOfTrailingZeros(ends);
+                long time = departure[HeldKarpSolver.index(k, subset, j)];
+                for (int rest = full & ~subset; rest != 0; rest &= rest - 1) {
+                    int l = Integer.numberOfTrailingZeros(rest);
+                    long next = windows.depart(l, problem.arrival(j + 1, l + 1, time));
+                    if (next == TimeWindows.LATE || next >= Integer.MAX_VALUE) {
+                        continue;
+                    }
+                    int target = subset | (1 << l);
+                    if (target == full) {
+                        return true;
+                    }
+                    int idx = HeldKarpSolver.index(k, target, l);
+                    if ((live[target] & (1 << l)) == 0 || next < departure[idx]) {
+                        live[target] |= 1 << l;
+                        departure[idx] = (int) next;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,222 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Распределение локаций между машинами, выезжающими из одного старта.
+ *
+ * Локации берутся по возрастанию дедлайна и вставляются в самое дешёвое
+ * допустимое место среди маршрутов всех машин; затем маршруты улучшаются
+ * переносом локаций из одного маршрута в другой, пока это сокращает
+ * суммарный пробег или не исчерпан бюджет времени.
+ *
+ * Для каждого маршрута хранятся начало и конец обслуживания в каждой позиции
+ * и запас — на сколько можно задержать прибытие в позицию, не нарушив
+ * дедлайнов дальше по маршруту (ожидание готовности может поглотить часть
+ * задержки, запас этого не учитывает и потому осторожен). Поэтому вставка
+ * проверяется за O(1). Из нескольких окон учитывается только оболочка.
+ *
+ * Порядок внутри маршрутов предварительный: итоговый порядок каждой машины
+ * строится отдельным решателем.
+ */
+public class FleetPartitioner {
+    private final int k;
+    private final int stride;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final int[] ready;
+    private final int[] service;
+    private final int vehicles;
+    private final int capacity;
+    private final long budgetNanos;
+
+    private final int[][] routes;
+    private final int[] lengths;
+    private final long[][] start;
+    private final long[][] departure;
+    private final long[][] slack;
+
+    /**
+     * @param maxLocationsPerVehicle желаемый предел локаций на машину; если локаций
+     *                               больше, чем vehicles * предел, он увеличивается
+     */
+    public FleetPartitioner(RoutingProblem problem, int vehicles, int maxLocationsPerVehicle, long budgetNanos) {
+        if (vehicles < 1) {
+            throw new IllegalArgumentException("Число машин должно быть положительным: " + vehicles);
+        }
+        this.k = problem.size();
+        this.stride = k + 1;
+        this.distances = problem.distances();
+        this.deadlines = problem.deadlines();
+        this.ready = problem.windows().ready;
+        this.service = problem.windows().service;
+        this.vehicles = vehicles;
+        this.capacity = Math.max(maxLocationsPerVehicle, (k + vehicles - 1) / vehicles);
+        this.budgetNanos = budgetNanos;
+        this.routes = new int[vehicles][capacity];
+        this.lengths = new int[vehicles];
+        this.start = new long[vehicles][capacity];
+        this.departure = new long[vehicles][capacity];
+        this.slack = new long[vehicles][capacity + 1];
+    }
+
+    /** Локации (индексы 0..k-1) каждой машины в предварительном порядке объезда. */
+    public int[][] partition() {
+        long stopAt = System.nanoTime() + budgetNanos;
+        for (int v = 0; v < vehicles; v++) {
+            refresh(v);
+        }
+        construct();
+        while (System.nanoTime() < stopAt && relocate()) {
+            // каждый удачный перенос сокращает пробег, поэтому цикл конечен
+        }
+        int[][] result = new int[vehicles][];
+        for (int v = 0; v < vehicles; v++) {
+            result[v] = Arrays.copyOf(routes[v], lengths[v]);
+        }
+        return result;
+    }
+
+    private void construct() {
+        Integer[] byDeadline = new Integer[k];
+        for (int l = 0; l < k; l++) {
+            byDeadline[l] = l;
+        }
+        Arrays.sort(byDeadline, Comparator.comparingInt((Integer l) -> deadlines[l]).thenComparingInt(l -> l));
+
+        for (int location : byDeadline) {
+            int bestVehicle = -1;
+            int bestPos = -1;
+            long bestCost = Long.MAX_VALUE;
+            boolean bestFeasible = false;
+            for (int v = 0; v < vehicles; v++) {
+                if (lengths[v] == capacity) {
+                    continue;
+                }
+                for (int p = 0; p <= lengths[v]; p++) {
+                    long cost = insertionCost(v, p, location);
+                    boolean feasible = fits(v, p, location);
+                    if (feasible && !bestFeasible || feasible == bestFeasible && better(cost, v, bestCost, bestVehicle)) {
+                        bestVehicle = v;
+                        bestPos = p;
+                        bestCost = cost;
+                        bestFeasible = feasible;
+                    }
+                }
+            }
+            // Недопустимая вставка остаётся в маршруте: решатель машины сообщит, что он невозможен.
+            insert(bestVehicle, bestPos, location);
+        }
+    }
+
+    // При равной стоимости локация уходит машине с более коротким маршрутом.
+    private boolean better(long cost, int v, long bestCost, int bestVehicle) {
+        return cost < bestCost || cost == bestCost && lengths[v] < lengths[bestVehicle];
+    }
+
+    // Перенос локации в другой маршрут, если там она обходится дешевле, чем экономит её удаление.
+    private boolean relocate() {
+        boolean improved = false;
+        for (int a = 0; a < vehicles; a++) {
+            for (int i = 0; i < lengths[a]; i++) {
+                int location = routes[a][i];
+                long gain = removalGain(a, i);
+                for (int b = 0; b < vehicles; b++) {
+                    if (b == a || lengths[b] == capacity) {
+                        continue;
+                    }
+                    for (int p = 0; p <= lengths[b]; p++) {
+                        long cost = insertionCost(b, p, location);
+                        if (cost < gain && fits(b, p, location)) {
+                            remove(a, i);
+                            insert(b, p, location);
+                            gain = -1;
+                            improved = true;
+                            break;
+                        }
+                    }
+                    if (gain < 0) {
+                        break;
+                    }
+                }
+                if (gain < 0) {
+                    i--;
+                }
+            }
+        }
+        return improved;
+    }
+
+    private long insertionCost(int v, int p, int location) {
+        int node = location + 1;
+        int prev = p == 0 ? 0 : routes[v][p - 1] + 1;
+        long cost = distances[prev * stride + node];
+        if (p < lengths[v]) {
+            int next = routes[v][p] + 1;
+            cost += distances[node * stride + next] - (long) distances[prev * stride + next];
+        }
+        return cost;
+    }
+
+    private boolean fits(int v, int p, int location) {
+        int node = location + 1;
+        int prev = p == 0 ? 0 : routes[v][p - 1] + 1;
+        long leave = p == 0 ? 0 : departure[v][p - 1];
+        long begin = Math.max(leave + distances[prev * stride + node], ready[location]);
+        if (begin > deadlines[location]) {
+            return false;
+        }
+        if (p == lengths[v]) {
+            return true;
+        }
+        int next = routes[v][p] + 1;
+        long delay = begin + service[location] + distances[node * stride + next]
+                - (leave + distances[prev * stride + next]);
+        return delay <= slack[v][p];
+    }
+
+    private long removalGain(int v, int i) {
+        int node = routes[v][i] + 1;
+        int prev = i == 0 ? 0 : routes[v][i - 1] + 1;
+        long gain = distances[prev * stride + node];
+        if (i + 1 < lengths[v]) {
+            int next = routes[v][i + 1] + 1;
+            gain += distances[node * stride + next] - (long) distances[prev * stride + next];
+        }
+        return gain;
+    }
+
+    private void insert(int v, int p, int location) {
+        int[] route = routes[v];
+        System.arraycopy(route, p, route, p + 1, lengths[v] - p);
+        route[p] = location;
+        lengths[v]++;
+        refresh(v);
+    }
+
+    private void remove(int v, int i) {
+        int[] route = routes[v];
+        System.arraycopy(route, i + 1, route, i, lengths[v] - i - 1);
+        lengths[v]--;
+        refresh(v);
+    }
+
+    private void refresh(int v) {
+        int[] route = routes[v];
+        int length = lengths[v];
+        long time = 0;
+        int node = 0;
+        for (int p = 0; p < length; p++) {
+            int location = route[p];
+            start[v][p] = Math.max(time + distances[node * stride + location + 1], ready[location]);
+            departure[v][p] = start[v][p] + service[location];
+            time = departure[v][p];
+            node = location + 1;
+        }
+        slack[v][length] = Long.MAX_VALUE / 4;
+        for (int p = length - 1; p >= 0; p--) {
+            slack[v][p] = Math.min(slack[v][p + 1], deadlines[route[p]] - start[v][p]);
+        }
+    }
+}
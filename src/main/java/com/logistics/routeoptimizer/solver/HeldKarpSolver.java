@@ -0,0 +1,254 @@
+package com.logistics.routeoptimizer.solver;
+
+/**
+ * Итеративный алгоритм Хелда-Карпа, учитывающий время прибытия.
+ *
+ * Для каждого подмножества S локаций и последней локации j из S хранится
+ * самое раннее время окончания обслуживания j, при котором все локации S
+ * посещены без нарушения ограничений по времени. Время отъезда не убывает
+ * по времени прибытия (ожидание окна не даёт обогнать того, кто приехал
+ * раньше), поэтому раннее окончание доминирует и таблица из k * 2^(k-1)
+ * целых чисел даёт точный ответ без рекурсии. Без окон и обслуживания
+ * самое раннее окончание — это и есть кратчайший путь. Зависящее от
+ * времени выезда время в пути соблюдает FIFO, так что доминирование сохраняется.
+ */
+public class HeldKarpSolver {
+    public static final int MAX_LOCATIONS = 25;
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Степень двойки: при k = 20 это около тысячи проверок на заполнение.
+    static final int CHECK_INTERVAL = 1 << 10;
+
+    private final int k;
+    private final int stride;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final int[] ready;
+    private final int[] service;
+    private final TimeWindows windows;
+    private final boolean multipleWindows;
+    private final TimeDependentTravel travel;
+    private final int[] departure;
+
+    public HeldKarpSolver(RoutingProblem problem) {
+        this(problem, null);
+    }
+
+    /**
+     * @param table буфер для таблицы длиной не меньше {@link #tableSize}(k) либо null;
+     *              перед решением его не нужно очищать
+     */
+    public HeldKarpSolver(RoutingProblem problem, int[] table) {
+        this.k = problem.size();
+        if (k < 1 || k > MAX_LOCATIONS) {
+            throw new IllegalArgumentException("Число локаций заказов должно быть от 1 до " + MAX_LOCATIONS + ": " + k);
+        }
+        this.stride = k + 1;
+        this.distances = problem.distances();
+        this.windows = problem.windows();
+        this.deadlines = windows.deadlines;
+        this.ready = windows.ready;
+        this.service = windows.service;
+        this.multipleWindows = windows.hasMultipleWindows();
+        this.travel = problem.travel();
+        this.departure = table != null ? table : new int[tableSize(k)];
+        if (departure.length < tableSize(k)) {
+            throw new IllegalArgumentException("Буфер таблицы меньше " + tableSize(k));
+        }
+    }
+
+    public static int tableSize(int k) {
+        return k << (k - 1);
+    }
+
+    /**
+     * Возвращает порядок посещения локаций (индексы 0..k-1) либо null,
+     * если уложиться во все дедлайны невозможно.
+     */
+    public int[] solve() {
+        fill();
+        return reconstruct();
+    }
+
+    /** Заполняет таблицу; порядок затем даёт {@link #reconstruct()}. */
+    public void fill() {
+        fill(CancellationToken.NONE);
+    }
+
+    /**
+     * Заполняет таблицу, проверяя отмену раз на CHECK_INTERVAL подмножеств.
+     * false — отменено, таблица заполнена не до конца и восстанавливать по ней нельзя.
+     */
+    public boolean fill(CancellationToken token) {
+        fillFirstLayer();
+        int full = (1 << k) - 1;
+        for (int subset = 1; subset <= full; subset++) {
+            if ((subset & (CHECK_INTERVAL - 1)) == 0 && token.isCancelled()) {
+                return false;
+            }
+            if ((subset & (subset - 1)) != 0) {
+                fillSubset(subset);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Решатель для задачи, в которую добавлена одна локация с индексом k, а
+     * первые k локаций, их дедлайны и расстояния между ними не изменились.
+     * Состояния без новой локации переносятся из заполненной таблицы этого
+     * решателя, пересчитываются только подмножества с новой локацией — половина работы.
+     */
+    public HeldKarpSolver extend(RoutingProblem extended) {
+        if (extended.size() != k + 1) {
+            throw new IllegalArgumentException("Расширенная задача должна содержать ровно одну новую локацию");
+        }
+        HeldKarpSolver next = new HeldKarpSolver(extended);
+        int half = 1 << (k - 1);
+        for (int j = 0; j < k; j++) {
+            System.arraycopy(departure, j << (k - 1), next.departure, j << k, half);
+        }
+        int bit = 1 << k;
+        next.departure[next.index(bit, k)] = next.depart(k, next.arrive(0, k + 1, 0));
+        for (int rest = 1; rest < bit; rest++) {
+            next.fillSubset(bit | rest);
+        }
+        return next;
+    }
+
+    int size() {
+        return k;
+    }
+
+    /**
+     * Число достижимых состояний заполненной таблицы; остальные из
+     * {@link #tableSize}(k) отброшены ограничениями по времени. Отдельный
+     * проход по таблице, чтобы не считать в цикле заполнения.
+     */
+    public long reachableStates() {
+        long reachable = 0;
+        for (int idx = 0, size = tableSize(k); idx < size; idx++) {
+            if (departure[idx] != UNREACHABLE) {
+                reachable++;
+            }
+        }
+        return reachable;
+    }
+
+    void fillFirstLayer() {
+        for (int j = 0; j < k; j++) {
+            departure[index(1 << j, j)] = depart(j, arrive(0, j + 1, 0));
+        }
+    }
+
+    void fillSubset(int subset) {
+        if (travel != null) {
+            fillSubsetTimeDependent(subset);
+            return;
+        }
+        for (int rest = subset; rest != 0; rest &= rest - 1) {
+            int j = Integer.numberOfTrailingZeros(rest);
+            int prev = subset ^ (1 << j);
+            long best = UNREACHABLE;
+            for (int bits = prev; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int t = departure[index(prev, i)];
+                int d = distances[(i + 1) * stride + j + 1];
+                if (t != UNREACHABLE && RoutingProblem.isEdge(d) && t + (long) d < best) {
+                    best = t + (long) d;
+                }
+            }
+            // Отъезд не убывает по прибытию, поэтому достаточно самого раннего прибытия.
+            departure[index(subset, j)] = best < UNREACHABLE ? depart(j, best) : UNREACHABLE;
+        }
+    }
+
+    private void fillSubsetTimeDependent(int subset) {
+        for (int rest = subset; rest != 0; rest &= rest - 1) {
+            int j = Integer.numberOfTrailingZeros(rest);
+            int prev = subset ^ (1 << j);
+            long best = UNREACHABLE;
+            for (int bits = prev; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int t = departure[index(prev, i)];
+                if (t != UNREACHABLE) {
+                    best = Math.min(best, travel.arrival(i + 1, j + 1, t));
+                }
+            }
+            departure[index(subset, j)] = best < UNREACHABLE ? depart(j, best) : UNREACHABLE;
+        }
+    }
+
+    /** Порядок посещения по уже заполненной таблице либо null. */
+    public int[] reconstruct() {
+        int[] order = new int[k];
+        return reconstruct(order) ? order : null;
+    }
+
+    /**
+     * Записывает порядок посещения в первые k элементов order без выделения
+     * памяти; false — маршрута нет, order не тронут.
+     */
+    public boolean reconstruct(int[] order) {
+        int subset = (1 << k) - 1;
+        int last = -1;
+        int bestTime = UNREACHABLE;
+        for (int j = 0; j < k; j++) {
+            int t = departure[index(subset, j)];
+            if (t < bestTime) {
+                bestTime = t;
+                last = j;
+            }
+        }
+        if (last == -1) {
+            return false;
+        }
+
+        int time = bestTime;
+        for (int pos = k - 1; pos > 0; pos--) {
+            order[pos] = last;
+            subset ^= 1 << last;
+            int prevLast = -1;
+            for (int bits = subset; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int t = departure[index(subset, i)];
+                if (t != UNREACHABLE && depart(last, arrive(i + 1, last + 1, t)) == time) {
+                    prevLast = i;
+                    break;
+                }
+            }
+            last = prevLast;
+            time = departure[index(subset, last)];
+        }
+        order[0] = last;
+        return true;
+    }
+
+    private long arrive(int from, int to, long time) {
+        if (travel != null) {
+            return travel.arrival(from, to, time);
+        }
+        int d = distances[from * stride + to];
+        return RoutingProblem.isEdge(d) ? time + d : RoutingProblem.NEVER;
+    }
+
+    // Окончание обслуживания j при прибытии в момент time либо UNREACHABLE.
+    private int depart(int j, long time) {
+        long start = Math.max(time, ready[j]);
+        if (start > deadlines[j]) {
+            return UNREACHABLE;
+        }
+        long end = multipleWindows ? windows.depart(j, time) : start + service[j];
+        return end == TimeWindows.LATE || end >= UNREACHABLE ? UNREACHABLE : (int) end;
+    }
+
+    // Бит j всегда входит в S, поэтому он вырезается из индекса: таблица вдвое меньше k * 2^k.
+    private int index(int subset, int j) {
+        return index(k, subset, j);
+    }
+
+    static int index(int k, int subset, int j) {
+        int low = subset & ((1 << j) - 1);
+        int high = (subset >>> (j + 1)) << j;
+        return (j << (k - 1)) | high | low;
+    }
+}
@@ -0,0 +1,387 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Эвристика для больших k, где Хелд-Карп неприменим: маршрут строится
+ * вставкой локаций в порядке дедлайнов (каждая — на самое дешёвое допустимое
+ * место), затем улучшается ходами 2-opt и Or-opt, пока есть улучшение или
+ * не исчерпан бюджет времени.
+ *
+ * Допустимость хода проверяется за O(1): для префиксов и суффиксов маршрута
+ * хранится сводка отрезка по Видалю — длительность с ожиданием и
+ * обслуживанием, самое раннее и самое позднее начало без лишнего ожидания
+ * и опоздания, и суммарное опоздание. Такие отрезки склеиваются за
+ * константу, поэтому проверять весь маршрут после каждого хода не нужно.
+ * Если у локации несколько окон или время в пути зависит от времени выезда,
+ * сводка точна лишь как ослабление: она видит оболочку от первого до
+ * последнего окна и минимальное по корзинам время в пути. Тогда ход,
+ * прошедший проверку, дополнительно проверяется проходом по маршруту.
+ *
+ * Оптимальность не гарантируется; null означает, что эвристика не нашла
+ * допустимого маршрута, хотя он может существовать.
+ */
+public class HeuristicSolver {
+    private static final int OR_OPT_MAX_LENGTH = 3;
+
+    private final RoutingProblem problem;
+    private final int k;
+    private final int stride;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final int[] ready;
+    private final int[] service;
+    private final TimeWindows windows;
+    private final boolean relaxed;
+    private final long budgetNanos;
+
+    private int[] route;
+    private int length;
+    private Segment[] prefix;
+    private Segment[] suffix;
+    private final Segment tmp = new Segment();
+    private final Segment tmp2 = new Segment();
+    private final Segment single = new Segment();
+    private final Segment moved = new Segment();
+    private final Segment middle = new Segment();
+
+    public HeuristicSolver(RoutingProblem problem, long budgetNanos) {
+        this.problem = problem;
+        this.k = problem.size();
+        this.stride = k + 1;
+        this.distances = problem.distances();
+        this.windows = problem.windows();
+        this.deadlines = windows.deadlines;
+        this.ready = windows.ready;
+        this.service = windows.service;
+        this.relaxed = windows.hasMultipleWindows() || problem.isTimeDependent();
+        this.budgetNanos = budgetNanos;
+    }
+
+    public int[] solve() {
+        return solve(new int[0]);
+    }
+
+    /**
+     * Улучшает уже известный порядок: локации initialOrder сохраняют взаимный
+     * порядок, недостающие вставляются на самые дешёвые допустимые места, затем
+     * идёт обычное улучшение. Если вставить не удаётся, маршрут строится заново.
+     */
+    public int[] solve(int[] initialOrder) {
+        return solve(initialOrder, CancellationToken.NONE);
+    }
+
+    /** Улучшение останавливается по бюджету или по отмене; построенный маршрут возвращается в любом случае. */
+    public int[] solve(int[] initialOrder, CancellationToken token) {
+        long stopAt = System.nanoTime() + budgetNanos;
+        route = new int[k + 1];
+        prefix = new Segment[k + 2];
+        suffix = new Segment[k + 2];
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] = new Segment();
+            suffix[i] = new Segment();
+        }
+        if (!construct(initialOrder) && (initialOrder.length == 0 || !construct(new int[0]))) {
+            return null;
+        }
+        boolean improved = true;
+        while (improved && System.nanoTime() < stopAt && !token.isCancelled()) {
+            improved = twoOpt() || orOpt();
+        }
+        int[] order = new int[k];
+        for (int p = 1; p <= k; p++) {
+            order[p - 1] = route[p] - 1;
+        }
+        // Последняя проверка точным проходом: сводка отрезков не должна выдать недопустимый маршрут.
+        return problem.routeTime(order) >= 0 ? order : null;
+    }
+
+    private boolean construct(int[] seed) {
+        Integer[] byDeadline = new Integer[k];
+        for (int i = 0; i < k; i++) {
+            byDeadline[i] = i + 1;
+        }
+        Arrays.sort(byDeadline, Comparator.comparingInt((Integer v) -> deadlines[v - 1]).thenComparingInt(v -> v));
+
+        boolean[] placed = new boolean[k + 1];
+        route[0] = 0;
+        length = 1;
+        for (int location : seed) {
+            route[length++] = location + 1;
+            placed[location + 1] = true;
+        }
+        rebuild();
+        if (!prefix[length - 1].feasible() || exactTime() == TimeWindows.LATE) {
+            return false;
+        }
+        for (int node : byDeadline) {
+            if (placed[node]) {
+                continue;
+            }
+            int bestPos = -1;
+            long bestCost = Long.MAX_VALUE;
+            singleNode(node, single);
+            for (int p = 0; p < length; p++) {
+                concat(prefix[p], single, tmp);
+                if (p + 1 < length) {
+                    concat(tmp, suffix[p + 1], tmp);
+                }
+                if (tmp.feasible() && tmp.duration < bestCost && (!relaxed || fitsAfter(node, p))) {
+                    bestCost = tmp.duration;
+                    bestPos = p;
+                }
+            }
+            if (bestPos == -1) {
+                return seed.length == 0 && fallbackEarliestDeadline(byDeadline);
+            }
+            System.arraycopy(route, bestPos + 1, route, bestPos + 2, length - bestPos - 1);
+            route[bestPos + 1] = node;
+            length++;
+            rebuild();
+        }
+        return true;
+    }
+
+    private boolean fallbackEarliestDeadline(Integer[] byDeadline) {
+        for (int i = 0; i < k; i++) {
+            route[i + 1] = byDeadline[i];
+        }
+        length = k + 1;
+        rebuild();
+        return prefix[k].feasible() && exactTime() != TimeWindows.LATE;
+    }
+
+    // Разворот отрезка route[i..j]; обратный отрезок наращивается по j за O(1).
+    private boolean twoOpt() {
+        long current = cost();
+        for (int i = 1; i < k; i++) {
+            singleNode(route[i], tmp2);
+            for (int j = i + 1; j <= k; j++) {
+                singleNode(route[j], single);
+                concat(single, tmp2, tmp2);
+                concat(prefix[i - 1], tmp2, tmp);
+                if (j < k) {
+                    concat(tmp, suffix[j + 1], tmp);
+                }
+                if (tmp.feasible() && tmp.duration < current) {
+                    reverse(i, j);
+                    if (accepted(current)) {
+                        rebuild();
+                        return true;
+                    }
+                    reverse(i, j);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Перенос отрезка route[i..i+len-1] в другое место маршрута.
+    private boolean orOpt() {
+        long current = cost();
+        for (int len = 1; len <= OR_OPT_MAX_LENGTH; len++) {
+            for (int i = 1; i + len - 1 <= k; i++) {
+                int end = i + len - 1;
+                segmentOf(i, end, moved);
+
+                middle.empty = true;
+                for (int p = i - 2; p >= 0; p--) {
+                    singleNode(route[p + 1], single);
+                    concat(single, middle, middle);
+                    concat(prefix[p], moved, tmp);
+                    concat(tmp, middle, tmp);
+                    if (end < k) {
+                        concat(tmp, suffix[end + 1], tmp);
+                    }
+                    if (tmp.feasible() && tmp.duration < current && tryMove(i, len, p, current)) {
+                        return true;
+                    }
+                }
+
+                middle.empty = true;
+                for (int p = end + 1; p <= k; p++) {
+                    singleNode(route[p], single);
+                    concat(middle, single, middle);
+                    concat(prefix[i - 1], middle, tmp);
+                    concat(tmp, moved, tmp);
+                    if (p < k) {
+                        concat(tmp, suffix[p + 1], tmp);
+                    }
+                    if (tmp.feasible() && tmp.duration < current && tryMove(i, len, p, current)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean tryMove(int i, int len, int p, long current) {
+        int[] saved = relaxed ? route.clone() : null;
+        move(i, len, p);
+        if (accepted(current)) {
+            rebuild();
+            return true;
+        }
+        System.arraycopy(saved, 0, route, 0, route.length);
+        return false;
+    }
+
+    // Без ослабления сводка отрезков точна и ход уже проверен.
+    private boolean accepted(long current) {
+        if (!relaxed) {
+            return true;
+        }
+        long time = exactTime();
+        return time != TimeWindows.LATE && time < current;
+    }
+
+    private long cost() {
+        return relaxed ? exactTime() : prefix[k].duration;
+    }
+
+    // Окончание обслуживания последней локации route[1..length-1] либо LATE.
+    private long exactTime() {
+        if (!relaxed) {
+            return 0;
+        }
+        long time = 0;
+        for (int p = 1; p < length; p++) {
+            time = windows.depart(route[p] - 1, problem.arrival(route[p - 1], route[p], time));
+            if (time == TimeWindows.LATE) {
+                return TimeWindows.LATE;
+            }
+        }
+        return time;
+    }
+
+    // Допустим ли маршрут, если вставить node сразу после позиции pos.
+    private boolean fitsAfter(int node, int pos) {
+        long time = 0;
+        int prev = 0;
+        for (int p = 1; p <= length; p++) {
+            int current = p <= pos ? route[p] : p == pos + 1 ? node : route[p - 1];
+            time = windows.depart(current - 1, problem.arrival(prev, current, time));
+            if (time == TimeWindows.LATE) {
+                return false;
+            }
+            prev = current;
+        }
+        return true;
+    }
+
+    private void reverse(int i, int j) {
+        while (i < j) {
+            int t = route[i];
+            route[i++] = route[j];
+            route[j--] = t;
+        }
+    }
+
+    // Ставит отрезок длины len с позиции i сразу после позиции p (p вне отрезка).
+    private void move(int i, int len, int p) {
+        int[] block = Arrays.copyOfRange(route, i, i + len);
+        if (p < i) {
+            System.arraycopy(route, p + 1, route, p + 1 + len, i - p - 1);
+            System.arraycopy(block, 0, route, p + 1, len);
+        } else {
+            System.arraycopy(route, i + len, route, i, p - i - len + 1);
+            System.arraycopy(block, 0, route, p - len + 1, len);
+        }
+    }
+
+    private void rebuild() {
+        singleNode(route[0], prefix[0]);
+        for (int p = 1; p < length; p++) {
+            singleNode(route[p], single);
+            concat(prefix[p - 1], single, prefix[p]);
+        }
+        singleNode(route[length - 1], suffix[length - 1]);
+        for (int p = length - 2; p >= 0; p--) {
+            singleNode(route[p], single);
+            concat(single, suffix[p + 1], suffix[p]);
+        }
+    }
+
+    private void segmentOf(int from, int to, Segment out) {
+        singleNode(route[from], out);
+        for (int p = from + 1; p <= to; p++) {
+            singleNode(route[p], single);
+            concat(out, single, out);
+        }
+    }
+
+    // Старт покидают ровно в момент 0.
+    private void singleNode(int node, Segment out) {
+        out.empty = false;
+        out.broken = false;
+        out.first = node;
+        out.last = node;
+        out.warp = 0;
+        if (node == 0) {
+            out.duration = 0;
+            out.earliest = 0;
+            out.latest = 0;
+        } else {
+            out.duration = service[node - 1];
+            out.earliest = ready[node - 1];
+            out.latest = deadlines[node - 1];
+        }
+    }
+
+    // out может совпадать с a или b.
+    private void concat(Segment a, Segment b, Segment out) {
+        if (a.empty) {
+            out.copy(b);
+            return;
+        }
+        if (b.empty) {
+            out.copy(a);
+            return;
+        }
+        long travel = distances[a.last * stride + b.first];
+        long delta = a.duration - a.warp + travel;
+        long waiting = Math.max(b.earliest - delta - a.latest, 0);
+        long lateness = Math.max(a.earliest + delta - b.latest, 0);
+        long earliest = Math.max(b.earliest - delta, a.earliest) - waiting;
+        long latest = Math.min(b.latest - delta, a.latest) + lateness;
+        out.empty = false;
+        out.first = a.first;
+        out.last = b.last;
+        out.duration = a.duration + b.duration + travel + waiting;
+        out.warp = a.warp + b.warp + lateness;
+        out.broken = a.broken || b.broken || !RoutingProblem.isEdge((int) travel);
+        out.earliest = earliest;
+        out.latest = latest;
+    }
+
+    // duration — от начала первого обслуживания до конца последнего при старте в earliest;
+    // warp — сколько пришлось бы опоздать, начав не позже latest;
+    // broken — внутри отрезка есть переход без пути, и никакой дедлайн его не спасает.
+    private static final class Segment {
+        boolean empty = true;
+        boolean broken;
+        int first;
+        int last;
+        long duration;
+        long earliest;
+        long latest;
+        long warp;
+
+        boolean feasible() {
+            return warp == 0 && !broken;
+        }
+
+        void copy(Segment other) {
+            empty = other.empty;
+            broken = other.broken;
+            first = other.first;
+            last = other.last;
+            duration = other.duration;
+            earliest = other.earliest;
+            latest = other.latest;
+            warp = other.warp;
+        }
+    }
+}
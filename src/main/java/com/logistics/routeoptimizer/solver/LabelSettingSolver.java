@@ -0,0 +1,338 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.Arrays;
+
+/**
+ * Точный поиск маршрута наименьшей суммарной длины при ограничениях по
+ * времени — та цель, которую пытается решать {@link RecursiveSolver}.
+ *
+ * Одного значения на состояние (посещённые S, последняя локация j) для этой
+ * цели мало: более длинный путь может прийти раньше и выдержать дедлайн, на
+ * котором короткий опоздает. Поэтому состояние хранит метки (длина, время
+ * окончания обслуживания j), не доминируемые друг другом: метка отбрасывается,
+ * если другая не длиннее и не позже. Метки состояния лежат подряд в общих
+ * массивах примитивов, упорядоченные по времени (длина при этом убывает).
+ *
+ * Метка отбрасывается и без сравнения с соседями, если
+ * <ul>
+ *     <li>из j уже не успеть напрямую к дедлайну какой-нибудь непосещённой локации;</li>
+ *     <li>длина плюс сумма минимальных входящих рёбер непосещённых локаций
+ *     не меньше длины известного маршрута — его даёт {@link HeuristicSolver}.</li>
+ * </ul>
+ *
+ * Число меток на состояние ограничено maxLabels. При переполнении выбрасывается
+ * предпоследняя по времени метка: самая ранняя и самая короткая остаются, так
+ * что допустимость решается по-прежнему точно, но минимальность длины уже не
+ * гарантирована — это сообщает {@link #isExact()}.
+ */
+public class LabelSettingSolver {
+    public static final int MAX_LOCATIONS = 20;
+    public static final int DEFAULT_MAX_LABELS = 256;
+    private static final long SEED_BUDGET_NANOS = 5_000_000L;
+    private static final int CHECK_INTERVAL = 1 << 10;
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final RoutingProblem problem;
+    private final int k;
+    private final int stride;
+    private final int[] distances;
+    private final int[] deadlines;
+    private final TimeWindows windows;
+    private final int maxLabels;
+    private final int[] minIn;
+
+    // Метки состояния index(S, j) — [offsets, offsets + counts) в массивах label*.
+    private final int[] offsets;
+    private final char[] counts;
+    private int[] labelDistance;
+    private int[] labelTime;
+    private int[] labelParent;
+    private int used;
+
+    // Фронт заполняемого состояния.
+    private final int[] frontDistance;
+    private final int[] frontTime;
+    private final int[] frontParent;
+    private int frontSize;
+
+    private long bestDistance;
+    private int[] bestOrder;
+    private boolean overflow;
+    private boolean stopped;
+    private long pruned;
+
+    public LabelSettingSolver(RoutingProblem problem) {
+        this(problem, DEFAULT_MAX_LABELS);
+    }
+
+    public LabelSettingSolver(RoutingProblem problem, int maxLabels) {
+        this.k = problem.size();
+        if (k < 1 || k > MAX_LOCATIONS) {
+            throw new IllegalArgumentException("Число локаций заказов должно быть от 1 до " + MAX_LOCATIONS + ": " + k);
+        }
+        if (maxLabels < 2 || maxLabels > Character.MAX_VALUE) {
+            throw new IllegalArgumentException("Число меток на состояние должно быть от 2 до " + (int) Character.MAX_VALUE);
+        }
+        this.problem = problem;
+        this.stride = k + 1;
+        this.distances = problem.distances();
+        this.windows = problem.windows();
+        this.deadlines = windows.deadlines;
+        this.maxLabels = maxLabels;
+        this.minIn = new int[k];
+        for (int l = 0; l < k; l++) {
+            int min = NONE;
+            for (int from = 0; from <= k; from++) {
+                if (from != l + 1) {
+                    min = Math.min(min, distances[from * stride + l + 1]);
+                }
+            }
+            minIn[l] = min;
+        }
+        int states = HeldKarpSolver.tableSize(k);
+        this.offsets = new int[states];
+        this.counts = new char[states];
+        // Обычно большая часть состояний отсечена, поэтому метки выделяются по мере надобности.
+        int capacity = Math.min(states, 1 << 16);
+        this.labelDistance = new int[capacity];
+        this.labelTime = new int[capacity];
+        this.labelParent = new int[capacity];
+        this.frontDistance = new int[maxLabels + 1];
+        this.frontTime = new int[maxLabels + 1];
+        this.frontParent = new int[maxLabels + 1];
+    }
+
+    public int[] solve() {
+        return solve(new int[0]);
+    }
+
+    /** Начальную верхнюю границу эвристика строит, улучшая initialOrder. */
+    public int[] solve(int[] initialOrder) {
+        return solve(initialOrder, CancellationToken.NONE);
+    }
+
+    /**
+     * Порядок посещения наименьшей длины либо null, если уложиться в
+     * ограничения невозможно. При отмене возвращает известный маршрут (или
+     * null); доведён ли поиск до конца, сообщает {@link #isComplete()}.
+     */
+    public int[] solve(int[] initialOrder, CancellationToken token) {
+        used = 0;
+        pruned = 0;
+        overflow = false;
+        stopped = false;
+        bestOrder = null;
+        bestDistance = Long.MAX_VALUE;
+        offer(initialOrder);
+        offer(new HeuristicSolver(problem, SEED_BUDGET_NANOS).solve(initialOrder, token));
+
+        int full = (1 << k) - 1;
+        for (int subset = 1; subset <= full; subset++) {
+            if ((subset & (CHECK_INTERVAL - 1)) == 0 && token.isCancelled()) {
+                stopped = true;
+                return bestOrder;
+            }
+            long bound = lowerBound(subset);
+            for (int rest = subset; rest != 0; rest &= rest - 1) {
+                fillState(subset, Integer.numberOfTrailingZeros(rest), bound);
+            }
+        }
+
+        int best = -1;
+        int bestLast = -1;
+        for (int j = 0; j < k; j++) {
+            int state = HeldKarpSolver.index(k, full, j);
+            if (counts[state] > 0) {
+                // Самая короткая метка — последняя по времени.
+                int label = offsets[state] + counts[state] - 1;
+                if (labelDistance[label] < bestDistance) {
+                    bestDistance = labelDistance[label];
+                    best = label;
+                    bestLast = j;
+                }
+            }
+        }
+        if (best >= 0) {
+            bestOrder = reconstruct(best, bestLast);
+        }
+        return bestOrder;
+    }
+
+    /** Был ли последний {@link #solve} доведён до конца. */
+    public boolean isComplete() {
+        return !stopped;
+    }
+
+    /** Доказана ли минимальность: поиск не прерван и ни одно состояние не переполнилось. */
+    public boolean isExact() {
+        return !stopped && !overflow;
+    }
+
+    /** Длина маршрута последнего {@link #solve} либо -1, если его нет. */
+    public long getBestDistance() {
+        return bestOrder == null ? -1 : bestDistance;
+    }
+
+    /** Метки, сохранённые последним {@link #solve}. */
+    public long getLabels() {
+        return used;
+    }
+
+    /** Метки, отброшенные по доминированию, дедлайнам или нижней оценке. */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /** Память под метки и их разметку по состояниям. */
+    public long labelBytes() {
+        return 12L * labelDistance.length + 6L * offsets.length;
+    }
+
+    /** Длина маршрута в порядке order либо -1, если он нарушает ограничения. */
+    public long routeDistance(int[] order) {
+        if (order == null || problem.routeTime(order) < 0) {
+            return -1;
+        }
+        long distance = 0;
+        int node = 0;
+        for (int location : order) {
+            distance += distances[node * stride + location + 1];
+            node = location + 1;
+        }
+        return distance;
+    }
+
+    private void offer(int[] order) {
+        long distance = routeDistance(order);
+        if (distance >= 0 && distance < bestDistance) {
+            bestDistance = distance;
+            bestOrder = order.clone();
+        }
+    }
+
+    private void fillState(int subset, int j, long bound) {
+        frontSize = 0;
+        long latest = latestFinish(subset, j);
+        int column = j + 1;
+        int prev = subset ^ (1 << j);
+        if (prev == 0) {
+            tryLabel(distances[column], windows.depart(j, problem.arrival(0, column, 0)), -1, latest, bound);
+        }
+        for (int bits = prev; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            int state = HeldKarpSolver.index(k, prev, i);
+            int d = distances[(i + 1) * stride + column];
+            if (!RoutingProblem.isEdge(d)) {
+                continue;
+            }
+            for (int label = offsets[state], end = label + counts[state]; label < end; label++) {
+                long finish = windows.depart(j, problem.arrival(i + 1, column, labelTime[label]));
+                tryLabel(labelDistance[label] + (long) d, finish, label, latest, bound);
+            }
+        }
+
+        int state = HeldKarpSolver.index(k, subset, j);
+        if (used + frontSize > labelDistance.length) {
+            int capacity = Math.max(2 * labelDistance.length, used + frontSize);
+            labelDistance = Arrays.copyOf(labelDistance, capacity);
+            labelTime = Arrays.copyOf(labelTime, capacity);
+            labelParent = Arrays.copyOf(labelParent, capacity);
+        }
+        offsets[state] = used;
+        counts[state] = (char) frontSize;
+        System.arraycopy(frontDistance, 0, labelDistance, used, frontSize);
+        System.arraycopy(frontTime, 0, labelTime, used, frontSize);
+        System.arraycopy(frontParent, 0, labelParent, used, frontSize);
+        used += frontSize;
+    }
+
+    private void tryLabel(long distance, long finish, int parent, long latest, long bound) {
+        if (finish == TimeWindows.LATE || finish > latest || distance >= NONE || distance + bound >= bestDistance) {
+            pruned++;
+            return;
+        }
+        insert((int) distance, (int) finish, parent);
+    }
+
+    // Фронт упорядочен по времени, длина строго убывает.
+    private void insert(int distance, int time, int parent) {
+        int pos = 0;
+        while (pos < frontSize && frontTime[pos] < time) {
+            pos++;
+        }
+        if (pos > 0 && frontDistance[pos - 1] <= distance
+                || pos < frontSize && frontTime[pos] == time && frontDistance[pos] <= distance) {
+            pruned++;
+            return;
+        }
+        int end = pos;
+        while (end < frontSize && frontDistance[end] >= distance) {
+            end++;
+        }
+        pruned += end - pos;
+        int shift = 1 - (end - pos);
+        if (shift != 0) {
+            System.arraycopy(frontDistance, end, frontDistance, end + shift, frontSize - end);
+            System.arraycopy(frontTime, end, frontTime, end + shift, frontSize - end);
+            System.arraycopy(frontParent, end, frontParent, end + shift, frontSize - end);
+            frontSize += shift;
+        }
+        frontDistance[pos] = distance;
+        frontTime[pos] = time;
+        frontParent[pos] = parent;
+        if (frontSize > maxLabels) {
+            int drop = frontSize - 2;
+            System.arraycopy(frontDistance, drop + 1, frontDistance, drop, 1);
+            System.arraycopy(frontTime, drop + 1, frontTime, drop, 1);
+            System.arraycopy(frontParent, drop + 1, frontParent, drop, 1);
+            frontSize--;
+            overflow = true;
+            pruned++;
+        }
+    }
+
+    // Позже этого момента из j не успеть напрямую к дедлайну какой-нибудь локации вне subset.
+    private long latestFinish(int subset, int j) {
+        long latest = Long.MAX_VALUE;
+        int row = (j + 1) * stride;
+        for (int l = 0; l < k; l++) {
+            if ((subset & (1 << l)) == 0) {
+                latest = Math.min(latest, (long) deadlines[l] - distances[row + l + 1]);
+            }
+        }
+        return latest;
+    }
+
+    private long lowerBound(int subset) {
+        long bound = 0;
+        for (int l = 0; l < k; l++) {
+            if ((subset & (1 << l)) == 0) {
+                bound += minIn[l];
+            }
+        }
+        return bound;
+    }
+
+    private int[] reconstruct(int label, int last) {
+        int[] order = new int[k];
+        int subset = (1 << k) - 1;
+        for (int pos = k - 1; pos >= 0; pos--) {
+            order[pos] = last;
+            int parent = labelParent[label];
+            subset ^= 1 << last;
+            if (parent < 0) {
+                break;
+            }
+            for (int bits = subset; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int state = HeldKarpSolver.index(k, subset, i);
+                if (parent >= offsets[state] && parent < offsets[state] + counts[state]) {
+                    last = i;
+                    break;
+                }
+            }
+            label = parent;
+        }
+        return order;
+    }
+}
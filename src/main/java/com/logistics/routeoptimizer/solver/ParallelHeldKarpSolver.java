@@ -0,0 +1,124 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельный вариант {@link HeldKarpSolver}: подмножества обрабатываются
+ * слоями по числу элементов. Внутри слоя состояния независимы (читают только
+ * предыдущий слой), поэтому слой делится на диапазоны рангов между потоками
+ * ForkJoinPool, а результат совпадает с однопоточным до бита. Пул передаётся
+ * снаружи и не закрывается решателем: потоки живут дольше одного решения.
+ */
+public class ParallelHeldKarpSolver {
+    private static final int GRAIN = 1 << 10;
+
+    private final HeldKarpSolver solver;
+    private final ForkJoinPool pool;
+    private final long[][] binomial;
+
+    public ParallelHeldKarpSolver(RoutingProblem problem, ForkJoinPool pool) {
+        this(problem, null, pool);
+    }
+
+    public ParallelHeldKarpSolver(RoutingProblem problem, int[] table, ForkJoinPool pool) {
+        this.solver = new HeldKarpSolver(problem, table);
+        this.pool = Objects.requireNonNull(pool);
+        this.binomial = binomials(solver.size());
+    }
+
+    public int[] solve() {
+        fill();
+        return reconstruct();
+    }
+
+    public void fill() {
+        fill(CancellationToken.NONE);
+    }
+
+    /** Как {@link HeldKarpSolver#fill(CancellationToken)}; отмена проверяется на каждом куске слоя. */
+    public boolean fill(CancellationToken token) {
+        int k = solver.size();
+        solver.fillFirstLayer();
+        for (int layer = 2; layer <= k; layer++) {
+            pool.invoke(new LayerTask(layer, 0, binomial[k][layer], token));
+            if (token.isCancelled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int[] reconstruct() {
+        return solver.reconstruct();
+    }
+
+    public long reachableStates() {
+        return solver.reachableStates();
+    }
+
+    private final class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int layer;
+        private final long from;
+        private final long to;
+        private final CancellationToken token;
+
+        LayerTask(int layer, long from, long to, CancellationToken token) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                if (token.isCancelled()) {
+                    return;
+                }
+                int subset = unrank(layer, from);
+                for (long rank = from; rank < to; rank++) {
+                    solver.fillSubset(subset);
+                    subset = nextSameBitCount(subset);
+                }
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new LayerTask(layer, from, mid, token), new LayerTask(layer, mid, to, token));
+        }
+    }
+
+    // Подмножество с заданным рангом среди подмножеств из bits элементов в порядке возрастания.
+    private int unrank(int bits, long rank) {
+        int subset = 0;
+        for (int pos = solver.size() - 1; pos >= 0 && bits > 0; pos--) {
+            long below = binomial[pos][bits];
+            if (rank >= below) {
+                subset |= 1 << pos;
+                rank -= below;
+                bits--;
+            }
+        }
+        return subset;
+    }
+
+    private static int nextSameBitCount(int subset) {
+        int lowest = subset & -subset;
+        int ripple = subset + lowest;
+        return (((ripple ^ subset) >>> 2) / lowest) | ripple;
+    }
+
+    private static long[][] binomials(int k) {
+        long[][] c = new long[k + 1][k + 1];
+        for (int i = 0; i <= k; i++) {
+            c[i][0] = 1;
+            for (int j = 1; j <= i; j++) {
+                c[i][j] = c[i - 1][j - 1] + c[i - 1][j];
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,99 @@
+package com.logistics.routeoptimizer.solver;
+
+import java.util.Arrays;
+
+/**
+ * Исходный рекурсивный dpSolve с мемоизацией по (узел, посещённые).
+ * Работает на сжатой задаче: узлы — старт и k локаций заказов, поэтому
+ * таблицы занимают (k + 1) * 2^k элементов, а не n * 2^k по всем вершинам графа.
+ * Состояние живёт в экземпляре, поэтому на каждый вызов нужен новый объект.
+ */
+public class RecursiveSolver {
+    private static final long INF = Long.MAX_VALUE / 2;
+    private final RoutingProblem problem;
+    private final TimeWindows windows;
+    private final int k;
+    private long[] dp;
+    private int[] next;
+
+    public RecursiveSolver(RoutingProblem problem) {
+        this.problem = problem;
+        this.windows = problem.windows();
+        this.k = problem.size();
+    }
+
+    private long dpSolve(int current, int visited, long currentTime) {
+        if (visited == (1 << k) - 1) {
+            return 0;
+        }
+
+        int state = (current << k) | visited;
+        if (dp[state] != -1) {
+            return dp[state];
+        }
+
+        long minDistance = INF;
+        int minNext = -1;
+
+        for (int i = 0; i < k; i++) {
+            int travel = problem.distance(current, i + 1);
+            if ((visited & (1 << i)) == 0 && RoutingProblem.isEdge(travel)) {
+                long travelDistance = travel;
+                long newTime = windows.depart(i, currentTime + travelDistance);
+
+                if (newTime != TimeWindows.LATE) {
+                    long result = dpSolve(i + 1, visited | (1 << i), newTime);
+                    if (result != INF && travelDistance + result < minDistance) {
+                        minDistance = travelDistance + result;
+                        minNext = i;
+                    }
+                }
+            }
+        }
+
+        dp[state] = minDistance;
+        next[state] = minNext;
+        return minDistance;
+    }
+
+    private int[] reconstructPath() {
+        int[] order = new int[k];
+        int current = 0;
+        int visited = 0;
+
+        for (int pos = 0; pos < k; pos++) {
+            int nextIdx = next[(current << k) | visited];
+            if (nextIdx == -1) {
+                return null;
+            }
+            order[pos] = nextIdx;
+            current = nextIdx + 1;
+            visited |= (1 << nextIdx);
+        }
+
+        return order;
+    }
+
+    /**
+     * Порядок посещения локаций (индексы 0..k-1) либо null, если уложиться
+     * во все дедлайны невозможно.
+     */
+    public int[] solve() {
+        int states = (k + 1) << k;
+        dp = new long[states];
+        next = new int[states];
+        Arrays.fill(dp, -1);
+        Arrays.fill(next, -1);
+
+        long minDistance = dpSolve(0, 0, 0);
+        if (minDistance == INF) {
+            return null;
+        }
+        return reconstructPath();
+    }
+
+    /** Память таблиц последнего {@link #solve}. */
+    public long memoBytes() {
+        return dp == null ? 0 : 12L * dp.length;
+    }
+}
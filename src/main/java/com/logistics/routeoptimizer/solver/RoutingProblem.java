@@ -0,0 +1,132 @@
+package com.logistics.routeoptimizer.solver;
+
+import com.logistics.routeoptimizer.util.GraphUtils;
+
+/**
+ * Сжатая постановка задачи для решателей: узел 0 — начальная локация,
+ * узлы 1..k — уникальные локации заказов. Расстояния хранятся плоской
+ * матрицей (k+1) x (k+1), ограничения по времени — в {@link TimeWindows}.
+ * Время маршрута — момент окончания обслуживания последней локации; без
+ * готовности и обслуживания оно совпадает с длиной маршрута.
+ *
+ * Если время в пути зависит от времени выезда ({@link TimeDependentTravel}),
+ * переходы считаются через {@link #arrival}, а плоская матрица хранит нижнюю
+ * оценку — минимум по корзинам — для отсечений и эвристик.
+ */
+public final class RoutingProblem {
+    /** Момент прибытия по недостижимому ребру. */
+    public static final long NEVER = Long.MAX_VALUE / 4;
+
+    private final int size;
+    private final int[] distances;
+    private final TimeWindows windows;
+    private final TimeDependentTravel travel;
+
+    public RoutingProblem(int[] distances, int[] deadlines) {
+        this(distances, new TimeWindows(deadlines));
+    }
+
+    public RoutingProblem(int[] distances, TimeWindows windows) {
+        this(distances, windows, null);
+    }
+
+    public RoutingProblem(TimeDependentTravel travel, TimeWindows windows) {
+        this(travel.lowerBound(), windows, travel);
+    }
+
+    private RoutingProblem(int[] distances, TimeWindows windows, TimeDependentTravel travel) {
+        int k = windows.size();
+        if (distances.length != (k + 1) * (k + 1)) {
+            throw new IllegalArgumentException("Размер матрицы расстояний не соответствует числу локаций");
+        }
+        this.size = k;
+        this.distances = distances;
+        this.windows = windows;
+        this.travel = travel;
+        if (travel != null && travel.stride() != k + 1) {
+            throw new IllegalArgumentException("Размер матриц корзин не соответствует числу локаций");
+        }
+    }
+
+    /** Число локаций заказов k (без начальной). */
+    public int size() {
+        return size;
+    }
+
+    /** Расстояние между узлами сжатой матрицы (0 — старт, i + 1 — локация i). */
+    public int distance(int from, int to) {
+        return distances[from * (size + 1) + to];
+    }
+
+    public int deadline(int location) {
+        return windows.deadlines[location];
+    }
+
+    public TimeWindows windows() {
+        return windows;
+    }
+
+    public boolean isTimeDependent() {
+        return travel != null;
+    }
+
+    /** Момент прибытия в узел to при выезде из from в момент departure либо {@link #NEVER}. */
+    public long arrival(int from, int to, long departure) {
+        if (travel != null) {
+            return travel.arrival(from, to, departure);
+        }
+        int d = distances[from * (size + 1) + to];
+        return isEdge(d) ? departure + d : NEVER;
+    }
+
+    /**
+     * Время прохождения маршрута в порядке order либо -1, если порядок
+     * посещает не все локации или нарушает ограничения по времени.
+     */
+    public long routeTime(int[] order) {
+        if (order.length != size) {
+            return -1;
+        }
+        boolean[] seen = new boolean[size];
+        long time = 0;
+        int node = 0;
+        for (int location : order) {
+            if (seen[location]) {
+                return -1;
+            }
+            seen[location] = true;
+            time = windows.depart(location, arrival(node, location + 1, time));
+            if (time == TimeWindows.LATE) {
+                return -1;
+            }
+            node = location + 1;
+        }
+        return time;
+    }
+
+    /**
+     * Та же задача, в которой ни в одной локации нельзя начать обслуживание
+     * позже limit. Если limit — время известного маршрута, ответ не меняется:
+     * у любого лучшего маршрута каждое обслуживание начинается не позже его
+     * конца. Зато решатели отбрасывают состояния, заведомо худшие известного маршрута.
+     */
+    public RoutingProblem withTimeLimit(long limit) {
+        return new RoutingProblem(distances, windows.withLatestStart(limit), travel);
+    }
+
+    static boolean isEdge(int distance) {
+        return distance < GraphUtils.INF;
+    }
+
+    int[] distances() {
+        return distances;
+    }
+
+    TimeDependentTravel travel() {
+        return travel;
+    }
+
+    int[] deadlines() {
+        return windows.deadlines;
+    }
+}
@@ -0,0 +1,56 @@
+package com.logistics.routeoptimizer.solver;
+
+import com.logistics.routeoptimizer.util.GraphUtils;
+import com.logistics.routeoptimizer.util.TimeDependentDistanceMatrix;
+
+/**
+ * Зависящее от времени выезда время в пути между узлами сжатой задачи:
+ * подматрица на каждую корзину {@link TimeDependentDistanceMatrix} и та же
+ * линейная интерполяция внутри корзины. Время задачи отсчитывается от
+ * startTime, корзины — от начала суток.
+ */
+public final class TimeDependentTravel {
+    private final int[][] bucketDistances;
+    private final int bucketLength;
+    private final long startTime;
+    private final int stride;
+
+    public TimeDependentTravel(int[][] bucketDistances, int bucketLength, long startTime) {
+        this.bucketDistances = bucketDistances;
+        this.bucketLength = bucketLength;
+        this.startTime = startTime;
+        this.stride = (int) Math.round(Math.sqrt(bucketDistances[0].length));
+        if (stride * stride != bucketDistances[0].length) {
+            throw new IllegalArgumentException("Подматрица корзины должна быть квадратной");
+        }
+    }
+
+    int stride() {
+        return stride;
+    }
+
+    /** Прибытие в to при выезде из from в момент departure либо {@link RoutingProblem#NEVER}. */
+    long arrival(int from, int to, long departure) {
+        long absolute = departure + startTime;
+        int buckets = bucketDistances.length;
+        int b = TimeDependentDistanceMatrix.bucketOf(absolute, buckets, bucketLength);
+        int idx = from * stride + to;
+        int current = bucketDistances[b][idx];
+        long travel = b == buckets - 1
+                ? current
+                : TimeDependentDistanceMatrix.interpolate(current, bucketDistances[b + 1][idx],
+                absolute - (long) b * bucketLength, bucketLength);
+        return travel >= GraphUtils.INF ? RoutingProblem.NEVER : departure + travel;
+    }
+
+    // Поэлементный минимум по корзинам: нижняя оценка времени в пути.
+    int[] lowerBound() {
+        int[] min = bucketDistances[0].clone();
+        for (int[] bucket : bucketDistances) {
+            for (int idx = 0; idx < min.length; idx++) {
+                min[idx] = Math.min(min[idx], bucket[idx]);
+            }
+        }
+        return min;
+    }
+}
@@ -0,0 +1,191 @@
+package com.logistics.routeoptimizer.solver;
+
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.model.TimeWindow;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ограничения по времени для локаций задачи в примитивных массивах.
+ *
+ * Все заказы одной локации обслуживаются за один визит: обслуживание
+ * начинается не раньше самой поздней готовности и не позже самого жёсткого
+ * дедлайна, а длится суммарное время обслуживания. Если у заказов несколько
+ * окон, начало должно попасть в пересечение их окон; такие локации хранят
+ * список окон, остальные обходятся двумя числами.
+ */
+public final class TimeWindows {
+    /** Значение {@link #depart}, если в локацию опоздали. */
+    public static final long LATE = -1;
+
+    final int[] ready;
+    final int[] deadlines;
+    final int[] service;
+    // Окна локации l — пары bounds[2w], bounds[2w + 1] для w из [offsets[l], offsets[l + 1]);
+    // у локаций с одним окном список пуст. null, если таких локаций нет вовсе.
+    private final int[] offsets;
+    private final int[] bounds;
+
+    /** Только дедлайны: готовность 0, обслуживание мгновенное. */
+    public TimeWindows(int[] deadlines) {
+        this(new int[deadlines.length], deadlines, new int[deadlines.length]);
+    }
+
+    public TimeWindows(int[] ready, int[] deadlines, int[] service) {
+        this(ready, deadlines, service, null, null);
+    }
+
+    private TimeWindows(int[] ready, int[] deadlines, int[] service, int[] offsets, int[] bounds) {
+        if (ready.length != deadlines.length || service.length != deadlines.length) {
+            throw new IllegalArgumentException("Массивы ограничений должны быть одной длины");
+        }
+        this.ready = ready;
+        this.deadlines = deadlines;
+        this.service = service;
+        this.offsets = offsets;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Сводит заказы каждой локации (ordersByLocation.get(l) — заказы локации l)
+     * в ограничения с отсчётом времени от startTime. Если окна заказов одной
+     * локации не пересекаются или уже прошли, её дедлайн становится отрицательным.
+     */
+    public static TimeWindows fromOrders(List<List<Order>> ordersByLocation, long startTime) {
+        int k = ordersByLocation.size();
+        int[] ready = new int[k];
+        int[] deadlines = new int[k];
+        int[] service = new int[k];
+        int[] offsets = new int[k + 1];
+        int[] bounds = new int[8];
+        int windowCount = 0;
+        boolean multiple = false;
+
+        for (int l = 0; l < k; l++) {
+            long[] common = {0, Long.MAX_VALUE};
+            long total = 0;
+            for (Order order : ordersByLocation.get(l)) {
+                common = intersect(common, shifted(order.getTimeWindows(), startTime));
+                total += order.getServiceTime();
+            }
+            service[l] = (int) Math.min(total, Integer.MAX_VALUE);
+            offsets[l] = windowCount;
+            if (common.length == 0) {
+                ready[l] = 0;
+                deadlines[l] = -1;
+                continue;
+            }
+            ready[l] = (int) common[0];
+            deadlines[l] = (int) Math.min(common[common.length - 1], Integer.MAX_VALUE);
+            if (common.length > 2) {
+                multiple = true;
+                if (bounds.length < 2 * windowCount + common.length) {
+                    bounds = Arrays.copyOf(bounds, Math.max(2 * bounds.length, 2 * windowCount + common.length));
+                }
+                for (int i = 0; i < common.length; i++) {
+                    bounds[2 * windowCount + i] = (int) Math.min(common[i], Integer.MAX_VALUE);
+                }
+                windowCount += common.length / 2;
+            }
+        }
+        offsets[k] = windowCount;
+        return multiple
+                ? new TimeWindows(ready, deadlines, service, offsets, Arrays.copyOf(bounds, 2 * windowCount))
+                : new TimeWindows(ready, deadlines, service);
+    }
+
+    public int size() {
+        return deadlines.length;
+    }
+
+    public int ready(int location) {
+        return ready[location];
+    }
+
+    public int deadline(int location) {
+        return deadlines[location];
+    }
+
+    public int service(int location) {
+        return service[location];
+    }
+
+    /** Есть ли у какой-нибудь локации больше одного окна. */
+    public boolean hasMultipleWindows() {
+        return offsets != null;
+    }
+
+    /**
+     * Время окончания обслуживания при прибытии в момент arrival либо {@link #LATE}.
+     * Функция не убывает по arrival: раньше приехал — не позже уехал.
+     */
+    public long depart(int location, long arrival) {
+        long start = Math.max(arrival, ready[location]);
+        if (start > deadlines[location]) {
+            return LATE;
+        }
+        if (offsets != null && offsets[location] != offsets[location + 1]) {
+            start = windowStart(location, start);
+            if (start == LATE || start > deadlines[location]) {
+                return LATE;
+            }
+        }
+        return start + service[location];
+    }
+
+    // Самый ранний момент не раньше start внутри одного из окон локации.
+    private long windowStart(int location, long start) {
+        for (int w = offsets[location]; w < offsets[location + 1]; w++) {
+            if (start <= bounds[2 * w + 1]) {
+                return Math.max(start, bounds[2 * w]);
+            }
+        }
+        return LATE;
+    }
+
+    /** Те же ограничения, но обслуживание нигде не может начаться позже limit. */
+    TimeWindows withLatestStart(long limit) {
+        int k = deadlines.length;
+        int[] capped = new int[k];
+        for (int l = 0; l < k; l++) {
+            capped[l] = (int) Math.min(deadlines[l], limit);
+        }
+        return new TimeWindows(ready, capped, service, offsets, bounds);
+    }
+
+    private static long[] shifted(List<TimeWindow> windows, long startTime) {
+        long[] result = new long[2 * windows.size()];
+        int count = 0;
+        for (TimeWindow window : windows) {
+            long end = window.getEnd() - startTime;
+            if (end >= 0) {
+                result[count++] = Math.max(0, window.getStart() - startTime);
+                result[count++] = end;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Пересечение двух упорядоченных списков непересекающихся отрезков [a, b].
+    private static long[] intersect(long[] x, long[] y) {
+        long[] result = new long[x.length + y.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < x.length && j < y.length) {
+            long from = Math.max(x[i], y[j]);
+            long to = Math.min(x[i + 1], y[j + 1]);
+            if (from <= to) {
+                result[count++] = from;
+                result[count++] = to;
+            }
+            if (x[i + 1] < y[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
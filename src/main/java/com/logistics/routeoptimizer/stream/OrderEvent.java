@@ -0,0 +1,31 @@
+package com.logistics.routeoptimizer.stream;
+
+import com.logistics.routeoptimizer.model.Order;
+
+/** Новый заказ для курьера, который сейчас находится в локации start. */
+public class OrderEvent {
+    private final String courier;
+    private final int start;
+    private final Order order;
+
+    public OrderEvent(String courier, int start, Order order) {
+        if (courier == null || order == null) {
+            throw new IllegalArgumentException("У события должны быть курьер и заказ");
+        }
+        this.courier = courier;
+        this.start = start;
+        this.order = order;
+    }
+
+    public String getCourier() {
+        return courier;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,75 @@
+package com.logistics.routeoptimizer.stream;
+
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.util.Json;
+
+import java.util.Map;
+
+/**
+ * Разбор одной строки потока событий. Поддерживаются два формата:
+ *
+ * CSV — start,location,deadline[,readyTime[,serviceTime[,courier]]];
+ * JSON ({@link Json}) — объект с полями start, location, deadline и необязательными
+ * readyTime, serviceTime, courier, например
+ * {"courier":"c7","start":0,"location":12,"deadline":90}.
+ *
+ * Без курьера событие относится к курьеру с именем, равным номеру стартовой локации.
+ */
+public final class OrderEventParser {
+    private OrderEventParser() {
+    }
+
+    /** Событие либо null для пустой строки, комментария (#) или заголовка CSV. */
+    public static OrderEvent parse(String line) {
+        String s = line.trim();
+        if (s.isEmpty() || s.startsWith("#") || s.startsWith("start,")) {
+            return null;
+        }
+        return s.startsWith("{") ? parseJson(s) : parseCsv(s);
+    }
+
+    private static OrderEvent parseCsv(String s) {
+        String[] fields = s.split(",", -1);
+        if (fields.length < 3 || fields.length > 6) {
+            throw new IllegalArgumentException("Ожидалось от 3 до 6 полей CSV, получено " + fields.length);
+        }
+        int start = number(fields[0], "start");
+        int location = number(fields[1], "location");
+        int deadline = number(fields[2], "deadline");
+        int ready = fields.length > 3 ? number(fields[3], "readyTime") : 0;
+        int service = fields.length > 4 ? number(fields[4], "serviceTime") : 0;
+        String courier = fields.length > 5 ? fields[5].trim() : String.valueOf(start);
+        return new OrderEvent(courier, start, new Order(location, ready, deadline, service));
+    }
+
+    private static OrderEvent parseJson(String s) {
+        Map<String, Object> fields = Json.object(Json.parse(s), "событие");
+        int start = Json.integer(required(fields, "start"), "start");
+        int location = Json.integer(required(fields, "location"), "location");
+        int deadline = Json.integer(required(fields, "deadline"), "deadline");
+        int ready = fields.containsKey("readyTime") ? Json.integer(fields.get("readyTime"), "readyTime") : 0;
+        int service = fields.containsKey("serviceTime") ? Json.integer(fields.get("serviceTime"), "serviceTime") : 0;
+        Object courier = fields.get("courier");
+        if (courier != null && !(courier instanceof String) && !(courier instanceof Long)) {
+            throw new IllegalArgumentException("Поле courier должно быть строкой или числом");
+        }
+        return new OrderEvent(courier != null ? courier.toString() : String.valueOf(start), start,
+                new Order(location, ready, deadline, service));
+    }
+
+    private static Object required(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Нет обязательного поля " + name);
+        }
+        return value;
+    }
+
+    private static int number(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть целым числом: " + value);
+        }
+    }
+}
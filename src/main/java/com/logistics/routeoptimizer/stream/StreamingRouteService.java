@@ -0,0 +1,206 @@
+package com.logistics.routeoptimizer.stream;
+
+import com.logistics.routeoptimizer.DeliveryRouteOptimizer;
+import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.model.RouteRequest;
+import com.logistics.routeoptimizer.util.Json;
+import com.logistics.routeoptimizer.util.TaskExecutors;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Долгоживущая обработка потока заказов (строки CSV или JSON, см.
+ * {@link OrderEventParser}) общим оптимизатором.
+ *
+ * Поток чтения разбирает строки и кладёт события в ограниченную очередь;
+ * когда она заполнена, чтение останавливается, и источник (канал stdin,
+ * сокет) упирается в свой буфер — так всплеск заказов не раздувает кучу.
+ * События собираются в пакеты: пакет закрывается, когда в нём maxBatchSize
+ * событий или с первого события прошло maxBatchDelayMillis. Заказы пакета
+ * группируются по курьерам, маршруты курьеров строятся параллельно, и на
+ * каждого курьера выводится одна строка JSON:
+ *
+ * {"batch":3,"courier":"c7","start":0,"orders":4,"route":[0,5,2,9]}
+ *
+ * Маршрут null — дедлайны выдержать невозможно. Стартом курьера служит
+ * start его последнего события в пакете. Нераспознанная строка не
+ * останавливает поток: выводится {"line":12,"error":"..."}.
+ */
+public class StreamingRouteService {
+    private static final OrderEvent END = new OrderEvent("", 0, new Order(0, 0));
+
+    private final DeliveryRouteOptimizer optimizer;
+    private final int maxBatchSize;
+    private final long maxBatchDelayMillis;
+    private final int queueCapacity;
+
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public StreamingRouteService(DeliveryRouteOptimizer optimizer, int maxBatchSize, long maxBatchDelayMillis, int queueCapacity) {
+        if (maxBatchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Размер пакета и ёмкость очереди должны быть положительными");
+        }
+        if (maxBatchDelayMillis < 0) {
+            throw new IllegalArgumentException("Задержка пакета не может быть отрицательной");
+        }
+        this.optimizer = optimizer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMillis = maxBatchDelayMillis;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Обрабатывает input до конца потока; последний неполный пакет тоже решается.
+     * Вызовы run независимы, поэтому один сервис может по очереди обслуживать
+     * несколько подключений.
+     */
+    public void run(Reader input, Writer output) throws IOException, InterruptedException {
+        BlockingQueue<OrderEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        IOException[] readFailure = new IOException[1];
+        Thread reader = new Thread(() -> ingest(input, output, queue, readFailure), "order-ingest");
+        reader.setDaemon(true);
+        reader.start();
+
+        ExecutorService executor = TaskExecutors.newTaskExecutor();
+        try {
+            List<OrderEvent> batch = new ArrayList<>(maxBatchSize);
+            long closeAt = 0;
+            boolean done = false;
+            while (!done) {
+                OrderEvent event = batch.isEmpty()
+                        ? queue.take()
+                        : queue.poll(Math.max(0, closeAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (event == END) {
+                    done = true;
+                } else if (event != null) {
+                    if (batch.isEmpty()) {
+                        closeAt = System.nanoTime() + maxBatchDelayMillis * 1_000_000L;
+                    }
+                    batch.add(event);
+                }
+                if (!batch.isEmpty() && (done || batch.size() >= maxBatchSize || System.nanoTime() >= closeAt)) {
+                    solve(batch, output, executor);
+                    batch.clear();
+                }
+            }
+        } finally {
+            executor.shutdown();
+            reader.interrupt();
+        }
+        reader.join();
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+    }
+
+    /** Принятые события за всё время работы сервиса. */
+    public long getEvents() {
+        return events.get();
+    }
+
+    /** Строки, которые не удалось разобрать. */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    private void ingest(Reader input, Writer output, BlockingQueue<OrderEvent> queue, IOException[] failure) {
+        BufferedReader lines = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        long lineNumber = 0;
+        try {
+            try {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    lineNumber++;
+                    OrderEvent event;
+                    try {
+                        event = OrderEventParser.parse(line);
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                        emit(output, "{\"line\":" + lineNumber + ",\"error\":" + Json.quote(e.getMessage()) + "}");
+                        continue;
+                    }
+                    if (event != null) {
+                        events.incrementAndGet();
+                        queue.put(event);
+                    }
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // обработка пакетов завершилась раньше, чем поток событий
+        }
+    }
+
+    private void solve(List<OrderEvent> batch, Writer output, ExecutorService executor) throws IOException {
+        long number = batches.incrementAndGet();
+        Map<String, List<Order>> orders = new LinkedHashMap<>();
+        Map<String, Integer> starts = new LinkedHashMap<>();
+        for (OrderEvent event : batch) {
+            orders.computeIfAbsent(event.getCourier(), c -> new ArrayList<>()).add(event.getOrder());
+            starts.put(event.getCourier(), event.getStart());
+        }
+        List<RouteRequest> requests = new ArrayList<>(orders.size());
+        for (Map.Entry<String, List<Order>> entry : orders.entrySet()) {
+            requests.add(new RouteRequest(starts.get(entry.getKey()), entry.getValue()));
+        }
+
+        List<List<Integer>> routes;
+        try {
+            routes = optimizer.findDeliveryRoutes(requests, executor);
+        } catch (IllegalArgumentException e) {
+            // Некорректный запрос одного курьера не должен лишать маршрутов остальных.
+            routes = null;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        int i = 0;
+        for (String courier : orders.keySet()) {
+            RouteRequest request = requests.get(i);
+            lines.append("{\"batch\":").append(number)
+                    .append(",\"courier\":").append(Json.quote(courier))
+                    .append(",\"start\":").append(request.getStart())
+                    .append(",\"orders\":").append(request.getOrders().size());
+            try {
+                List<Integer> route = routes != null
+                        ? routes.get(i)
+                        : optimizer.findDeliveryRoute(request.getStart(), request.getOrders());
+                lines.append(",\"route\":").append(route == null ? "null" : route.toString().replace(" ", ""));
+            } catch (IllegalArgumentException e) {
+                lines.append(",\"error\":").append(Json.quote(e.getMessage()));
+            }
+            lines.append("}\n");
+            i++;
+        }
+        emit(output, lines.toString());
+    }
+
+    private static void emit(Writer output, String text) throws IOException {
+        synchronized (output) {
+            output.write(text);
+            if (!text.endsWith("\n")) {
+                output.write('\n');
+            }
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ориентированный граф в формате CSR: исходящие рёбра вершины v занимают
+ * позиции offsets[v]..offsets[v + 1] - 1 в массивах targets и weights.
+ *
+ * Вес 0 означает «ребра нет» — так же, как 0 вне диагонали в полной матрице
+ * ({@link GraphUtils#initializeGraph}). Поэтому все фабрики пропускают рёбра
+ * с весом 0, и на одном графе Дейкстра и Флойд-Уоршелл дают одни расстояния.
+ */
+public class CsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    private CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /** Рёбра с весом 0 пропускаются: это «нет ребра», как в полной матрице. */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, int[] weight) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Массивы рёбер должны быть одной длины");
+        }
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < from.length; e++) {
+            if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                throw new IllegalArgumentException("Некорректная вершина ребра: " + from[e] + " -> " + to[e]);
+            }
+            if (weight[e] < 0) {
+                throw new IllegalArgumentException("Вес ребра не может быть отрицательным");
+            }
+            if (weight[e] != 0) {
+                offsets[from[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = new int[n];
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int e = 0; e < from.length; e++) {
+            if (weight[e] == 0) {
+                continue;
+            }
+            int pos = offsets[from[e]] + fill[from[e]]++;
+            targets[pos] = to[e];
+            weights[pos] = weight[e];
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /** Рёбра матрицы смежности; как и в {@link GraphUtils#initializeGraph}, 0 вне диагонали — нет ребра. */
+    public static CsrGraph fromMatrix(int[][] graph) {
+        int n = graph.length;
+        int edges = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && graph[i][j] != 0) {
+                    edges++;
+                }
+            }
+        }
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int[] weight = new int[edges];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && graph[i][j] != 0) {
+                    from[e] = i;
+                    to[e] = j;
+                    weight[e] = graph[i][j];
+                    e++;
+                }
+            }
+        }
+        return fromEdges(n, from, to, weight);
+    }
+
+    /**
+     * Копия графа, в которой рёбра from[e] -> to[e] заменены на рёбра с весом
+     * weight[e] (0 — ребро удаляется, при повторе пары действует последнее
+     * обновление). Сам граф не меняется.
+     */
+    CsrGraph withEdges(int[] from, int[] to, int[] weight) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Массивы рёбер должны быть одной длины");
+        }
+        int n = vertexCount();
+        Map<Long, Integer> updates = new HashMap<>();
+        for (int e = 0; e < from.length; e++) {
+            if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                throw new IllegalArgumentException("Некорректная вершина ребра: " + from[e] + " -> " + to[e]);
+            }
+            if (weight[e] < 0) {
+                throw new IllegalArgumentException("Вес ребра не может быть отрицательным");
+            }
+            updates.put(pair(from[e], to[e]), weight[e]);
+        }
+
+        int capacity = targets.length + updates.size();
+        int[] newFrom = new int[capacity];
+        int[] newTo = new int[capacity];
+        int[] newWeight = new int[capacity];
+        int edges = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (!updates.containsKey(pair(v, targets[e]))) {
+                    newFrom[edges] = v;
+                    newTo[edges] = targets[e];
+                    newWeight[edges] = weights[e];
+                    edges++;
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> update : updates.entrySet()) {
+            if (update.getValue() > 0) {
+                long key = update.getKey();
+                newFrom[edges] = (int) (key >>> 32);
+                newTo[edges] = (int) key;
+                newWeight[edges] = update.getValue();
+                edges++;
+            }
+        }
+        return fromEdges(n, Arrays.copyOf(newFrom, edges), Arrays.copyOf(newTo, edges), Arrays.copyOf(newWeight, edges));
+    }
+
+    private static long pair(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    int edgesStart(int v) {
+        return offsets[v];
+    }
+
+    int edgesEnd(int v) {
+        return offsets[v + 1];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    int weight(int edge) {
+        return weights[edge];
+    }
+}
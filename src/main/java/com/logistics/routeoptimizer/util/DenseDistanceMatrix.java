@@ -0,0 +1,51 @@
+package com.logistics.routeoptimizer.util;
+
+/**
+ * Полная матрица кратчайших путей, посчитанная Флойдом-Уоршеллом.
+ * Неизменяема, поэтому один экземпляр можно разделять между оптимизаторами.
+ */
+public class DenseDistanceMatrix implements DistanceMatrix {
+    private final int n;
+    private final int[] weights;
+    private final int[] distances;
+
+    private DenseDistanceMatrix(int n, int[] weights, int[] distances) {
+        this.n = n;
+        this.weights = weights;
+        this.distances = distances;
+    }
+
+    public static DenseDistanceMatrix compute(int[][] graph) {
+        return fromWeights(graph.length, GraphUtils.initializeFlatGraph(graph));
+    }
+
+    /** Считает матрицу по плоским весам рёбер из {@link GraphUtils#initializeFlatGraph}; веса не копируются. */
+    static DenseDistanceMatrix fromWeights(int n, int[] weights) {
+        int[] distances = weights.clone();
+        GraphUtils.floydWarshallBlocked(distances, n, Runtime.getRuntime().availableProcessors());
+        return new DenseDistanceMatrix(n, weights, distances);
+    }
+
+    /**
+     * Память матрицы на n вершин: кроме кратчайших путей она держит веса
+     * рёбер для {@link #toDynamic()}, по 4 байта на ячейку в каждом массиве.
+     */
+    static long sizeInBytes(int n) {
+        return 8L * n * n;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        return distances[from * n + to];
+    }
+
+    /** Изменяемая копия матрицы для точечного обновления рёбер. */
+    public DynamicDistanceMatrix toDynamic() {
+        return new DynamicDistanceMatrix(n, weights.clone(), distances.clone());
+    }
+}
@@ -0,0 +1,141 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Arrays;
+
+/**
+ * Расстояния в разреженном графе без полной матрицы: {@link #submatrix}
+ * запускает Дейкстру только из запрошенных вершин и останавливается, как
+ * только все они достигнуты. Для k + 1 вершин это O(k * E log V) времени
+ * и O(V) дополнительной памяти вместо O(n^3) и O(n^2) у Флойда-Уоршелла.
+ * Неизменяема: обновлённые рёбра дают новый экземпляр ({@link #withEdges}).
+ */
+public class DijkstraDistanceMatrix implements DistanceMatrix {
+    private final CsrGraph graph;
+
+    public DijkstraDistanceMatrix(CsrGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Матрица на графе с заменёнными рёбрами (0 — ребро удаляется). Пути всё
+     * равно ищутся на каждый запрос, поэтому пересчитывать ничего не нужно.
+     */
+    public DijkstraDistanceMatrix withEdges(int[] from, int[] to, int[] weights) {
+        return new DijkstraDistanceMatrix(graph.withEdges(from, to, weights));
+    }
+
+    @Override
+    public int size() {
+        return graph.vertexCount();
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        return submatrix(new int[]{from, to})[1];
+    }
+
+    @Override
+    public int[] submatrix(int[] nodes) {
+        int n = graph.vertexCount();
+        int m = nodes.length;
+        boolean[] isTarget = new boolean[n];
+        int targetCount = 0;
+        for (int node : nodes) {
+            if (!isTarget[node]) {
+                isTarget[node] = true;
+                targetCount++;
+            }
+        }
+
+        int[] result = new int[m * m];
+        int[] dist = new int[n];
+        boolean[] settled = new boolean[n];
+        LongHeap heap = new LongHeap();
+        for (int i = 0; i < m; i++) {
+            Arrays.fill(dist, GraphUtils.INF);
+            Arrays.fill(settled, false);
+            heap.clear();
+            run(nodes[i], dist, settled, isTarget, targetCount, heap);
+            for (int j = 0; j < m; j++) {
+                result[i * m + j] = dist[nodes[j]];
+            }
+        }
+        return result;
+    }
+
+    private void run(int source, int[] dist, boolean[] settled, boolean[] isTarget, int targetCount, LongHeap heap) {
+        dist[source] = 0;
+        heap.push(source);
+        int remaining = targetCount;
+        while (!heap.isEmpty() && remaining > 0) {
+            long top = heap.pop();
+            int v = (int) top;
+            int d = (int) (top >>> 32);
+            if (settled[v] || d > dist[v]) {
+                continue;
+            }
+            settled[v] = true;
+            if (isTarget[v]) {
+                remaining--;
+            }
+            for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                int u = graph.target(e);
+                int candidate = GraphUtils.saturatingAdd(d, graph.weight(e));
+                if (candidate < dist[u]) {
+                    dist[u] = candidate;
+                    heap.push(((long) candidate << 32) | u);
+                }
+            }
+        }
+    }
+
+    // Двоичная куча на long: старшие 32 бита — расстояние, младшие — вершина.
+    private static final class LongHeap {
+        private long[] items = new long[64];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (items[parent] <= item) {
+                    break;
+                }
+                items[pos] = items[parent];
+                pos = parent;
+            }
+            items[pos] = item;
+        }
+
+        long pop() {
+            long top = items[0];
+            long last = items[--size];
+            int pos = 0;
+            int half = size >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                if (child + 1 < size && items[child + 1] < items[child]) {
+                    child++;
+                }
+                if (last <= items[child]) {
+                    break;
+                }
+                items[pos] = items[child];
+                pos = child;
+            }
+            items[pos] = last;
+            return top;
+        }
+    }
+}
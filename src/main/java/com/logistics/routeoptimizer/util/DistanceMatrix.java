@@ -0,0 +1,26 @@
+package com.logistics.routeoptimizer.util;
+
+/**
+ * Источник кратчайших расстояний между вершинами графа.
+ */
+public interface DistanceMatrix {
+    int size();
+
+    /** Кратчайшее расстояние либо {@link GraphUtils#INF}, если вершина недостижима. */
+    int distance(int from, int to);
+
+    /**
+     * Плотная подматрица для заданных вершин в плоском массиве m * m,
+     * где m = nodes.length: элемент [i * m + j] равен distance(nodes[i], nodes[j]).
+     */
+    default int[] submatrix(int[] nodes) {
+        int m = nodes.length;
+        int[] result = new int[m * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                result[i * m + j] = distance(nodes[i], nodes[j]);
+            }
+        }
+        return result;
+    }
+}
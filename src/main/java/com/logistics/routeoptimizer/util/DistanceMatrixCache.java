@@ -0,0 +1,160 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Потокобезопасный LRU-кэш матриц кратчайших путей по содержимому графа.
+ *
+ * Ключ — размер графа и 64-битный хэш весов рёбер; при совпадении ключа веса
+ * дополнительно сравниваются целиком, поэтому коллизия хэша даёт промах, а не
+ * чужую матрицу. Если несколько потоков одновременно просят один и тот же
+ * граф, Флойд-Уоршелл выполняется один раз, остальные ждут результата.
+ */
+public class DistanceMatrixCache {
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    private static final DistanceMatrixCache SHARED = new DistanceMatrixCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DistanceMatrixCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /** Общий кэш, которым пользуется {@code new DeliveryRouteOptimizer(int[][])}. */
+    public static DistanceMatrixCache shared() {
+        return SHARED;
+    }
+
+    public DenseDistanceMatrix get(int[][] graph) {
+        int n = graph.length;
+        int[] weights = GraphUtils.initializeFlatGraph(graph);
+        Key key = new Key(n, Hashing.contentHash(weights));
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !Arrays.equals(entry.weights, weights)) {
+                remove(key);
+                entry = null;
+            }
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+                entry = new Entry(n, weights);
+                entries.put(key, entry);
+                totalBytes += entry.bytes;
+                evict();
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            entry.task.run();
+        }
+        try {
+            return entry.task.get();
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    remove(key);
+                }
+            }
+            throw new IllegalStateException("Не удалось вычислить матрицу расстояний", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание матрицы расстояний прервано", e);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return totalBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            totalBytes -= it.next().bytes;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    private static final class Entry {
+        private final int[] weights;
+        private final FutureTask<DenseDistanceMatrix> task;
+        private final long bytes;
+
+        Entry(int n, int[] weights) {
+            this.weights = weights;
+            this.task = new FutureTask<>(() -> DenseDistanceMatrix.fromWeights(n, weights));
+            // Массив weights и есть веса готовой матрицы, поэтому он учтён в её размере один раз.
+            this.bytes = DenseDistanceMatrix.sizeInBytes(n);
+        }
+    }
+
+    private static final class Key {
+        private final int n;
+        private final long hash;
+
+        Key(int n, long hash) {
+            this.n = n;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return n == other.n && hash == other.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash) * 31 + n;
+        }
+    }
+}
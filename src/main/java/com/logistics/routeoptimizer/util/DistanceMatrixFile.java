@@ -0,0 +1,89 @@
+package com.logistics.routeoptimizer.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Бинарный файл матрицы расстояний для отображения в память.
+ *
+ * Формат (little-endian): заголовок из четырёх int — MAGIC, VERSION, n и 0,
+ * затем n * n значений int по строкам. Файл записывается один раз после
+ * Флойда-Уоршелла; {@link #open} отображает его в память, не загружая
+ * матрицу в кучу, поэтому запуск на готовом графе занимает миллисекунды.
+ */
+public final class DistanceMatrixFile {
+    public static final int MAGIC = 0x44504D58;
+    public static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    // Один MappedByteBuffer адресует не больше 2 ГБ, поэтому файл отображается кусками по строкам.
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private DistanceMatrixFile() {
+    }
+
+    public static void write(DistanceMatrix matrix, Path path) throws IOException {
+        int n = matrix.size();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(0).flip();
+            writeFully(channel, header);
+
+            ByteBuffer row = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < n; i++) {
+                row.clear();
+                for (int j = 0; j < n; j++) {
+                    row.putInt(matrix.distance(i, j));
+                }
+                row.flip();
+                writeFully(channel, row);
+            }
+        }
+    }
+
+    public static MappedDistanceMatrix open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Файл не является матрицей расстояний: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия файла матрицы: " + version);
+            }
+            int n = header.getInt();
+            long rowBytes = 4L * n;
+            if (n <= 0 || channel.size() != HEADER_BYTES + rowBytes * n) {
+                throw new IOException("Размер файла не соответствует матрице " + n + " x " + n + ": " + path);
+            }
+
+            int rowsPerSegment = (int) Math.max(1, Math.min(n, MAX_SEGMENT_BYTES / rowBytes));
+            int segmentCount = (n + rowsPerSegment - 1) / rowsPerSegment;
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long firstRow = (long) s * rowsPerSegment;
+                long rows = Math.min(rowsPerSegment, n - firstRow);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstRow * rowBytes, rows * rowBytes);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedDistanceMatrix(n, rowsPerSegment, segments);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
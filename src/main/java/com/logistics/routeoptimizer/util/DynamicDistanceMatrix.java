@@ -0,0 +1,114 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Arrays;
+
+/**
+ * Матрица кратчайших путей, которая пересчитывается точечно при изменении
+ * веса ребра, без повторного Флойда-Уоршелла.
+ *
+ * Уменьшение веса ребра (u, v) обрабатывается за O(n^2): каждая пара может
+ * лишь укоротиться через это ребро. При увеличении затронуты только пары
+ * (i, j), чей кратчайший путь шёл через (u, v); для этого необходимо
+ * d[i][u] + w(u, v) == d[i][v], поэтому строки таких источников i
+ * пересчитываются Дейкстрой, а остальные остаются без изменений.
+ */
+public class DynamicDistanceMatrix implements DistanceMatrix {
+    private final int n;
+    private final int[] weights;
+    private final int[] distances;
+
+    DynamicDistanceMatrix(int n, int[] weights, int[] distances) {
+        this.n = n;
+        this.weights = weights;
+        this.distances = distances;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        return distances[from * n + to];
+    }
+
+    /**
+     * Задаёт новый вес ребра from -> to. Как и в матрице смежности, 0 вне
+     * диагонали означает отсутствие ребра.
+     */
+    public void updateEdge(int from, int to, int weight) {
+        if (from < 0 || from >= n || to < 0 || to >= n) {
+            throw new IllegalArgumentException("Некорректное ребро: " + from + " -> " + to);
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Вес ребра не может быть отрицательным");
+        }
+        if (from == to) {
+            return;
+        }
+        int newWeight = weight == 0 ? GraphUtils.INF : weight;
+        int oldWeight = weights[from * n + to];
+        weights[from * n + to] = newWeight;
+        if (newWeight < oldWeight) {
+            relaxThrough(from, to, newWeight);
+        } else if (newWeight > oldWeight) {
+            recomputeAffected(from, to, oldWeight);
+        }
+    }
+
+    private void relaxThrough(int u, int v, int weight) {
+        int vRow = v * n;
+        for (int i = 0; i < n; i++) {
+            int iRow = i * n;
+            int viaEdge = GraphUtils.saturatingAdd(distances[iRow + u], weight);
+            if (viaEdge >= distances[iRow + v]) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                int candidate = GraphUtils.saturatingAdd(viaEdge, distances[vRow + j]);
+                if (candidate < distances[iRow + j]) {
+                    distances[iRow + j] = candidate;
+                }
+            }
+        }
+    }
+
+    private void recomputeAffected(int u, int v, int oldWeight) {
+        int[] dist = new int[n];
+        boolean[] done = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int diu = distances[i * n + u];
+            if (diu < GraphUtils.INF && GraphUtils.saturatingAdd(diu, oldWeight) == distances[i * n + v]) {
+                dijkstraRow(i, dist, done);
+            }
+        }
+    }
+
+    // Дейкстра без кучи по плотной матрице весов, O(n^2) на строку.
+    private void dijkstraRow(int source, int[] dist, boolean[] done) {
+        Arrays.fill(dist, GraphUtils.INF);
+        Arrays.fill(done, false);
+        dist[source] = 0;
+        for (int step = 0; step < n; step++) {
+            int v = -1;
+            for (int x = 0; x < n; x++) {
+                if (!done[x] && (v == -1 || dist[x] < dist[v])) {
+                    v = x;
+                }
+            }
+            if (dist[v] >= GraphUtils.INF) {
+                break;
+            }
+            done[v] = true;
+            int vRow = v * n;
+            for (int x = 0; x < n; x++) {
+                int candidate = GraphUtils.saturatingAdd(dist[v], weights[vRow + x]);
+                if (candidate < dist[x]) {
+                    dist[x] = candidate;
+                }
+            }
+        }
+        System.arraycopy(dist, 0, distances, source * n, n);
+    }
+}
@@ -0,0 +1,192 @@
+package com.logistics.routeoptimizer.util;
+
+import com.logistics.routeoptimizer.model.Order;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Загрузка графов и заказов из файлов.
+ *
+ * Текстовые форматы разбираются {@link NumberReader} прямо из байтов:
+ * матрица смежности — n, затем n * n весов по строкам; список рёбер —
+ * строки from,to,weight; заказы — строки location,deadline[,readyTime[,serviceTime]].
+ * Заголовки CSV и строки-комментарии с '#' пропускаются.
+ *
+ * Бинарная матрица смежности (little-endian): заголовок из четырёх int —
+ * MAGIC, VERSION, n и 0, затем n * n весов по строкам. Она читается
+ * отображением файла в память и массовым копированием строк, поэтому матрица
+ * 10 000 x 10 000 загружается быстрее, чем её текстовый вариант разбирается.
+ */
+public final class GraphLoader {
+    public static final int MAGIC = 0x44504758;
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private GraphLoader() {
+    }
+
+    public static int[][] readMatrix(Path path) throws IOException {
+        try (NumberReader reader = new NumberReader(path)) {
+            int n = reader.nextInt();
+            if (n <= 0) {
+                throw reader.error("Размер матрицы должен быть положительным");
+            }
+            int[][] graph = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                int[] row = graph[i];
+                for (int j = 0; j < n; j++) {
+                    row[j] = reader.nextInt();
+                }
+            }
+            if (reader.hasNext()) {
+                throw reader.error("Лишние числа после матрицы " + n + " x " + n);
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * Ориентированный граф из списка рёбер; число вершин — наибольший номер плюс один.
+     * Если undirected, каждое ребро добавляется в обе стороны. Вес 0 — ребра нет,
+     * как в матрице смежности.
+     */
+    public static CsrGraph readEdges(Path path, boolean undirected) throws IOException {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int[] weight = new int[1024];
+        int edges = 0;
+        int n = 0;
+        try (NumberReader reader = new NumberReader(path)) {
+            while (reader.hasNext()) {
+                int a = reader.nextInt();
+                int b = reader.nextIntOnLine("Слишком мало полей ребра: ожидалось три");
+                int w = reader.nextIntOnLine("Слишком мало полей ребра: ожидалось три");
+                if (reader.hasNextOnLine()) {
+                    throw reader.error("Ожидалось три поля ребра");
+                }
+                if (a < 0 || b < 0) {
+                    throw reader.error("Номер вершины не может быть отрицательным");
+                }
+                if (edges + 2 > from.length) {
+                    int capacity = 2 * from.length;
+                    from = Arrays.copyOf(from, capacity);
+                    to = Arrays.copyOf(to, capacity);
+                    weight = Arrays.copyOf(weight, capacity);
+                }
+                from[edges] = a;
+                to[edges] = b;
+                weight[edges++] = w;
+                if (undirected) {
+                    from[edges] = b;
+                    to[edges] = a;
+                    weight[edges++] = w;
+                }
+                n = Math.max(n, Math.max(a, b) + 1);
+            }
+        }
+        return CsrGraph.fromEdges(n, Arrays.copyOf(from, edges), Arrays.copyOf(to, edges), Arrays.copyOf(weight, edges));
+    }
+
+    public static List<Order> readOrders(Path path) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        try (NumberReader reader = new NumberReader(path)) {
+            while (reader.hasNext()) {
+                int location = reader.nextInt();
+                int deadline = reader.nextIntOnLine("Слишком мало полей заказа: ожидалось от 2 до 4");
+                int ready = reader.hasNextOnLine() ? reader.nextInt() : 0;
+                int service = reader.hasNextOnLine() ? reader.nextInt() : 0;
+                if (reader.hasNextOnLine()) {
+                    throw reader.error("Ожидалось от 2 до 4 полей заказа");
+                }
+                try {
+                    orders.add(new Order(location, ready, deadline, service));
+                } catch (IllegalArgumentException e) {
+                    throw reader.error(e.getMessage());
+                }
+            }
+        }
+        return orders;
+    }
+
+    public static void writeBinary(int[][] graph, Path path) throws IOException {
+        int n = graph.length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(0).flip();
+            writeFully(channel, header);
+
+            ByteBuffer row = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+            for (int[] values : graph) {
+                if (values.length != n) {
+                    throw new IllegalArgumentException("Матрица смежности должна быть квадратной");
+                }
+                row.clear();
+                row.asIntBuffer().put(values);
+                writeFully(channel, row);
+            }
+        }
+    }
+
+    public static int[][] readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Файл не является бинарным графом: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Файл не является бинарным графом: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия файла графа: " + version);
+            }
+            int n = header.getInt();
+            long rowBytes = 4L * n;
+            if (n <= 0 || size != HEADER_BYTES + rowBytes * n) {
+                throw new IOException("Размер файла не соответствует матрице " + n + " x " + n + ": " + path);
+            }
+
+            int[][] graph = new int[n][n];
+            // Отображение кусками по строкам: один буфер адресует не больше 2 ГБ.
+            int rowsPerChunk = (int) Math.max(1, Math.min(n, (1L << 28) / rowBytes));
+            for (int first = 0; first < n; first += rowsPerChunk) {
+                int rows = Math.min(rowsPerChunk, n - first);
+                IntBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * rowBytes, rows * rowBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer();
+                for (int i = 0; i < rows; i++) {
+                    chunk.get(graph[first + i]);
+                }
+            }
+            return graph;
+        }
+    }
+
+    /** Начинается ли файл с заголовка бинарного графа. */
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // читаем до четырёх байт
+            }
+            return header.position() == 4 && header.getInt(0) == MAGIC;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
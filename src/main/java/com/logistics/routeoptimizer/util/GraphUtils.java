@@ -1,7 +1,12 @@
 package com.logistics.routeoptimizer.util;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 public class GraphUtils {
-    private static final int INF = Integer.MAX_VALUE / 2;
+    public static final int INF = Integer.MAX_VALUE / 2;
+    private static final int BLOCK = 64;
 
     public static int[][] initializeGraph(int[][] graph) {
         int n = graph.length;
@@ -28,4 +33,107 @@ public class GraphUtils {
             }
         }
     }
-}
\ No newline at end of file
+
+    /** То же, что {@link #initializeGraph}, но в плоском массиве n * n по строкам. */
+    public static int[] initializeFlatGraph(int[][] graph) {
+        int n = graph.length;
+        int[] distances = new int[flatSize(n)];
+        for (int i = 0; i < n; i++) {
+            if (graph[i].length != n) {
+                throw new IllegalArgumentException("Матрица смежности должна быть квадратной");
+            }
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = graph[i][j] == 0 && i != j ? INF : graph[i][j];
+            }
+        }
+        return distances;
+    }
+
+    public static void floydWarshallBlocked(int[] distances, int n) {
+        floydWarshallBlocked(distances, n, 1);
+    }
+
+    /**
+     * Блочный Флойд-Уоршелл над плоской матрицей: на каждом шаге сначала
+     * считается диагональный блок, затем блоки его строки и столбца, затем
+     * все остальные. Блоки второй и третьей фазы независимы и считаются
+     * параллельно в общем пуле {@link TaskExecutors#forkJoinPool}. Результат
+     * совпадает с {@link #floydWarshall}.
+     */
+    public static void floydWarshallBlocked(int[] distances, int n, int parallelism) {
+        if (distances.length != flatSize(n)) {
+            throw new IllegalArgumentException("Размер матрицы не равен n * n");
+        }
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        ForkJoinPool pool = parallelism > 1 && blocks > 1 ? TaskExecutors.forkJoinPool(parallelism) : null;
+        for (int kb = 0; kb < blocks; kb++) {
+            int pivot = kb;
+            updateBlock(distances, n, pivot, pivot, pivot);
+            forEach(pool, 2 * blocks, idx -> {
+                int other = idx >> 1;
+                if (other == pivot) {
+                    return;
+                }
+                if ((idx & 1) == 0) {
+                    updateBlock(distances, n, pivot, other, pivot);
+                } else {
+                    updateBlock(distances, n, other, pivot, pivot);
+                }
+            });
+            forEach(pool, blocks * blocks, idx -> {
+                int ib = idx / blocks;
+                int jb = idx % blocks;
+                if (ib != pivot && jb != pivot) {
+                    updateBlock(distances, n, ib, jb, pivot);
+                }
+            });
+        }
+    }
+
+    /** Длина плоской матрицы n * n; такая матрица должна помещаться в один массив. */
+    static int flatSize(int n) {
+        long size = (long) n * n;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Матрица " + n + " x " + n + " не помещается в один массив");
+        }
+        return (int) size;
+    }
+
+    /** Сложение с насыщением: сумма двух расстояний не превышает INF. */
+    public static int saturatingAdd(int a, int b) {
+        return Math.min(a + b, INF);
+    }
+
+    private static void updateBlock(int[] d, int n, int ib, int jb, int kb) {
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jStart = jb * BLOCK;
+        int jEnd = Math.min(n, jStart + BLOCK);
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int iRow = i * n;
+                int dik = d[iRow + k];
+                if (dik >= INF) {
+                    continue;
+                }
+                for (int j = jStart; j < jEnd; j++) {
+                    int candidate = saturatingAdd(dik, d[kRow + j]);
+                    if (candidate < d[iRow + j]) {
+                        d[iRow + j] = candidate;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void forEach(ForkJoinPool pool, int count, IntConsumer action) {
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).join();
+        }
+    }
+}
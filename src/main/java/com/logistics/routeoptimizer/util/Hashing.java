@@ -0,0 +1,21 @@
+package com.logistics.routeoptimizer.util;
+
+/**
+ * Хэш содержимого для ключей кэшей: FNV-1a по элементам и финальное
+ * перемешивание из MurmurHash3. Кэши при совпадении хэша всё равно сравнивают
+ * содержимое целиком, так что коллизия стоит лишь промаха.
+ */
+public final class Hashing {
+    private Hashing() {
+    }
+
+    public static long contentHash(int[] values) {
+        long hash = 0xcbf29ce484222325L;
+        for (int v : values) {
+            hash = (hash ^ v) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+}
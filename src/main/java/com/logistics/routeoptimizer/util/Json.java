@@ -0,0 +1,233 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Небольшой JSON для HTTP-сервиса и потока событий: разбор в Map, List,
+ * Long, String, Boolean и null и экранирование строк для ответов. Дробные
+ * числа не поддерживаются: во всех полях API целые.
+ */
+public final class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /** Значение JSON; IllegalArgumentException — текст не разбирается. */
+    public static Object parse(String text) {
+        Json reader = new Json(text);
+        Object value = reader.value();
+        reader.skipSpaces();
+        if (reader.pos != text.length()) {
+            throw reader.error("Лишние символы после JSON");
+        }
+        return value;
+    }
+
+    /** Строка в кавычках с экранированием; null даёт null. */
+    public static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /** Объект JSON как Map; IllegalArgumentException, если value не объект. */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> object(Object value, String what) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался объект: " + what);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /** Целое поле name в диапазоне int. */
+    public static int integer(Object value, String name) {
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть целым числом");
+        }
+        long number = (Long) value;
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Поле " + name + " вне диапазона int");
+        }
+        return (int) number;
+    }
+
+    private Object value() {
+        skipSpaces();
+        if (pos >= text.length()) {
+            throw error("Неожиданный конец JSON");
+        }
+        char c = text.charAt(pos);
+        if (c == '{') {
+            return object();
+        }
+        if (c == '[') {
+            return array();
+        }
+        if (c == '"') {
+            return string();
+        }
+        if (c == '-' || c >= '0' && c <= '9') {
+            return number();
+        }
+        if (text.startsWith("true", pos)) {
+            pos += 4;
+            return Boolean.TRUE;
+        }
+        if (text.startsWith("false", pos)) {
+            pos += 5;
+            return Boolean.FALSE;
+        }
+        if (text.startsWith("null", pos)) {
+            pos += 4;
+            return null;
+        }
+        throw error("Неожиданный символ '" + c + "'");
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        pos++;
+        skipSpaces();
+        if (peek() == '}') {
+            pos++;
+            return result;
+        }
+        while (true) {
+            skipSpaces();
+            String key = string();
+            skipSpaces();
+            expect(':');
+            result.put(key, value());
+            skipSpaces();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                return result;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> result = new ArrayList<>();
+        pos++;
+        skipSpaces();
+        if (peek() == ']') {
+            pos++;
+            return result;
+        }
+        while (true) {
+            result.add(value());
+            skipSpaces();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                return result;
+            }
+        }
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                if (pos >= text.length()) {
+                    break;
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Неполная escape-последовательность");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(e);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw error("Незакрытая строка JSON");
+    }
+
+    private Long number() {
+        int from = pos;
+        if (text.charAt(pos) == '-') {
+            pos++;
+        }
+        while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == '.' || text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            throw error("Ожидалось целое число");
+        }
+        try {
+            return Long.parseLong(text.substring(from, pos));
+        } catch (NumberFormatException e) {
+            throw error("Некорректное число");
+        }
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : 0;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Ожидался символ '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (позиция " + pos + ")");
+    }
+}
@@ -0,0 +1,32 @@
+package com.logistics.routeoptimizer.util;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * Матрица расстояний, читаемая напрямую из отображённого в память файла
+ * {@link DistanceMatrixFile}. Страницы подгружаются операционной системой
+ * по мере обращения и в кучу JVM не попадают.
+ */
+public class MappedDistanceMatrix implements DistanceMatrix {
+    private final int n;
+    private final int rowsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    MappedDistanceMatrix(int n, int rowsPerSegment, MappedByteBuffer[] segments) {
+        this.n = n;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        MappedByteBuffer segment = segments[from / rowsPerSegment];
+        long offset = ((long) (from % rowsPerSegment) * n + to) * 4;
+        return segment.getInt((int) offset);
+    }
+}
@@ -0,0 +1,190 @@
+package com.logistics.routeoptimizer.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение целых чисел из текстового файла прямо из байтового буфера канала,
+ * без строк и объектов на каждое число. Разделители — пробельные символы,
+ * запятые и точки с запятой. Строка, начинающаяся с '#' или буквы
+ * (комментарий, заголовок CSV), пропускается целиком.
+ */
+final class NumberReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final Path path;
+    private final byte[] bytes = new byte[BUFFER_BYTES];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int pos;
+    private int limit;
+    private int line = 1;
+    private boolean lineStart = true;
+
+    NumberReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /** Есть ли ещё число в файле. */
+    boolean hasNext() throws IOException {
+        return skip(true);
+    }
+
+    /** Есть ли ещё число в текущей строке. */
+    boolean hasNextOnLine() throws IOException {
+        return skip(false);
+    }
+
+    int nextInt() throws IOException {
+        // Частый случай — один пробел или запятая перед числом — без общего пропуска.
+        if (pos + 1 < limit && (bytes[pos] == ' ' || bytes[pos] == ',') && bytes[pos + 1] >= '0' && bytes[pos + 1] <= '9') {
+            pos++;
+        } else if (!hasNext()) {
+            throw error("Неожиданный конец файла");
+        }
+        // Быстрый путь: число целиком в буфере и за ним есть ещё хотя бы байт.
+        byte[] buf = bytes;
+        int p = pos;
+        boolean negative = buf[p] == '-';
+        if (negative) {
+            p++;
+        }
+        long value = 0;
+        int end = Math.min(limit, p + 11);
+        while (p < end) {
+            int d = buf[p] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            value = value * 10 + d;
+            p++;
+        }
+        if (p == limit || p == end) {
+            return slowInt();
+        }
+        if (p == pos + (negative ? 1 : 0) || !isSeparator(buf[p])) {
+            throw error("Ожидалось целое число");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw error("Слишком большое число");
+        }
+        pos = p;
+        lineStart = false;
+        return (int) value;
+    }
+
+    /**
+     * Следующее число той же строки; если строка кончилась, ошибка с сообщением
+     * message и номером этой строки, а не число со следующей.
+     */
+    int nextIntOnLine(String message) throws IOException {
+        if (!hasNextOnLine()) {
+            throw error(message);
+        }
+        return nextInt();
+    }
+
+    // Число на границе буфера или подозрительно длинное: побайтно с подкачкой.
+    private int slowInt() throws IOException {
+        boolean negative = bytes[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (fill()) {
+            int d = bytes[pos] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("Слишком большое число");
+            }
+            digits++;
+            pos++;
+        }
+        if (digits == 0 || fill() && !isSeparator(bytes[pos])) {
+            throw error("Ожидалось целое число");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw error("Слишком большое число");
+        }
+        lineStart = false;
+        return (int) value;
+    }
+
+    /** Переходит к началу следующей строки. */
+    void nextLine() throws IOException {
+        while (fill()) {
+            if (bytes[pos++] == '\n') {
+                line++;
+                lineStart = true;
+                return;
+            }
+        }
+    }
+
+    int line() {
+        return line;
+    }
+
+    IOException error(String message) {
+        return new IOException(message + ": " + path + ", строка " + line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Пропускает разделители (и перевод строки, если acrossLines) и пропускаемые строки.
+    private boolean skip(boolean acrossLines) throws IOException {
+        while (fill()) {
+            byte b = bytes[pos];
+            if (b == '\n') {
+                if (!acrossLines) {
+                    return false;
+                }
+                pos++;
+                line++;
+                lineStart = true;
+            } else if (isSeparator(b)) {
+                pos++;
+            } else if (lineStart && (b == '#' || b < 0 || Character.isLetter(b))) {
+                if (!acrossLines) {
+                    return false;
+                }
+                nextLine();
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == ',' || b == ';' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        pos = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
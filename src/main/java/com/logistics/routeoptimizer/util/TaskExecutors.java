@@ -0,0 +1,43 @@
+package com.logistics.routeoptimizer.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+public final class TaskExecutors {
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> FORK_JOIN_POOLS = new ConcurrentHashMap<>();
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Исполнитель для множества коротких независимых задач: виртуальные потоки,
+     * если JVM их поддерживает (Java 21+), иначе пул по числу процессоров.
+     */
+    public static ExecutorService newTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Общий ForkJoinPool на parallelism потоков: пул JVM, если его параллелизм
+     * совпадает, иначе один пул на каждый уровень параллелизма. Потоки пула —
+     * демоны и завершаются при простое, поэтому пул не закрывают; вызовы
+     * с одним уровнем параллелизма делят потоки, а не создают свои.
+     */
+    public static ForkJoinPool forkJoinPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Уровень параллелизма должен быть положительным: " + parallelism);
+        }
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return FORK_JOIN_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+}
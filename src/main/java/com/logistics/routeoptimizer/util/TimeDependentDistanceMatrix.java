@@ -0,0 +1,193 @@
+package com.logistics.routeoptimizer.util;
+
+/**
+ * Кратчайшие пути, зависящие от времени выезда. Сутки делятся на корзины
+ * длиной bucketLength; для каждой корзины своя матрица кратчайших путей
+ * (значение на начало корзины), а внутри корзины время в пути линейно
+ * переходит к значению следующей. После последней корзины время постоянно.
+ *
+ * Матрицы выравниваются так, чтобы соблюдался FIFO: значение соседней
+ * корзины не падает больше чем на bucketLength, поэтому выехавший позже
+ * никогда не приезжает раньше. Решатели опираются на это свойство.
+ *
+ * Хранение: первая корзина — int, остальные — short-разности с ней (час пик
+ * обычно меняет время в 2–3 раза, и разность умещается в 16 бит); корзина,
+ * где разность не умещается, хранится целиком. Для 24 корзин это около
+ * половины памяти 24 полных матриц.
+ *
+ * {@link #distance(int, int)} возвращает минимум по корзинам — нижнюю оценку
+ * времени в пути в любое время суток.
+ */
+public class TimeDependentDistanceMatrix implements DistanceMatrix {
+    private final int n;
+    private final int buckets;
+    private final int bucketLength;
+    private final int[] base;
+    private final short[][] deltas;
+    private final int[][] full;
+
+    private TimeDependentDistanceMatrix(int n, int bucketLength, int[][] matrices) {
+        this.n = n;
+        this.buckets = matrices.length;
+        this.bucketLength = bucketLength;
+        this.base = matrices[0];
+        this.deltas = new short[buckets][];
+        this.full = new int[buckets][];
+        for (int b = 1; b < buckets; b++) {
+            short[] delta = encode(base, matrices[b]);
+            if (delta != null) {
+                deltas[b] = delta;
+            } else {
+                full[b] = matrices[b];
+            }
+        }
+    }
+
+    /**
+     * @param graphs       матрица смежности на каждую корзину (0 — ребра нет)
+     * @param bucketLength длина корзины в единицах времени
+     */
+    public static TimeDependentDistanceMatrix compute(int[][][] graphs, int bucketLength) {
+        if (graphs.length == 0) {
+            throw new IllegalArgumentException("Нужна хотя бы одна временная корзина");
+        }
+        if (bucketLength <= 0) {
+            throw new IllegalArgumentException("Длина корзины должна быть положительной");
+        }
+        int n = graphs[0].length;
+        int[][] matrices = new int[graphs.length][];
+        for (int b = 0; b < graphs.length; b++) {
+            if (graphs[b].length != n) {
+                throw new IllegalArgumentException("Графы всех корзин должны быть одного размера");
+            }
+            int[] distances = GraphUtils.initializeFlatGraph(graphs[b]);
+            GraphUtils.floydWarshallBlocked(distances, n, Runtime.getRuntime().availableProcessors());
+            matrices[b] = distances;
+        }
+        enforceFifo(matrices, bucketLength);
+        return new TimeDependentDistanceMatrix(n, bucketLength, matrices);
+    }
+
+    /**
+     * Профиль скоростей: вес ребра в корзине b равен весу в graph, умноженному
+     * на slowdown[b] и округлённому вверх (1.0 — свободная дорога, 2.5 — час пик).
+     */
+    public static TimeDependentDistanceMatrix compute(int[][] graph, double[] slowdown, int bucketLength) {
+        int n = graph.length;
+        int[][][] graphs = new int[slowdown.length][n][n];
+        for (int b = 0; b < slowdown.length; b++) {
+            if (slowdown[b] <= 0) {
+                throw new IllegalArgumentException("Коэффициент замедления должен быть положительным: " + slowdown[b]);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (graph[i][j] != 0) {
+                        graphs[b][i][j] = (int) Math.min(GraphUtils.INF - 1, Math.ceil(graph[i][j] * slowdown[b]));
+                    }
+                }
+            }
+        }
+        return compute(graphs, bucketLength);
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public int distance(int from, int to) {
+        int idx = from * n + to;
+        int min = base[idx];
+        for (int b = 1; b < buckets; b++) {
+            min = Math.min(min, at(b, idx));
+        }
+        return min;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    public int bucketLength() {
+        return bucketLength;
+    }
+
+    /** Кратчайшее время в пути при выезде ровно в начале корзины bucket. */
+    public int distance(int bucket, int from, int to) {
+        return at(bucket, from * n + to);
+    }
+
+    /** Время в пути при выезде в момент departure либо {@link GraphUtils#INF}. */
+    public long travelTime(int from, int to, long departure) {
+        int idx = from * n + to;
+        int b = bucketOf(departure, buckets, bucketLength);
+        if (b == buckets - 1) {
+            return at(b, idx);
+        }
+        return interpolate(at(b, idx), at(b + 1, idx), departure - (long) b * bucketLength, bucketLength);
+    }
+
+    /** Подматрицы всех корзин для заданных вершин, как в {@link #submatrix}. */
+    public int[][] bucketSubmatrices(int[] nodes) {
+        int m = nodes.length;
+        int[][] result = new int[buckets][m * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int idx = nodes[i] * n + nodes[j];
+                for (int b = 0; b < buckets; b++) {
+                    result[b][i * m + j] = at(b, idx);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static int bucketOf(long time, int buckets, int bucketLength) {
+        return (int) Math.min(Math.max(time, 0) / bucketLength, buckets - 1);
+    }
+
+    /**
+     * Время в пути при выезде через offset после начала корзины, если на её
+     * границах оно равно current и next. Недостижимость не интерполируется.
+     */
+    public static long interpolate(int current, int next, long offset, int bucketLength) {
+        if (current >= GraphUtils.INF || next >= GraphUtils.INF) {
+            return current;
+        }
+        return current + Math.floorDiv((long) (next - current) * offset, bucketLength);
+    }
+
+    private int at(int bucket, int idx) {
+        if (bucket == 0) {
+            return base[idx];
+        }
+        short[] delta = deltas[bucket];
+        return delta != null ? base[idx] + delta[idx] : full[bucket][idx];
+    }
+
+    // Наклон t + travel(t) не меньше нуля, пока следующее значение не меньше текущего минус bucketLength.
+    private static void enforceFifo(int[][] matrices, int bucketLength) {
+        for (int b = 1; b < matrices.length; b++) {
+            int[] previous = matrices[b - 1];
+            int[] current = matrices[b];
+            for (int idx = 0; idx < current.length; idx++) {
+                if (previous[idx] < GraphUtils.INF && current[idx] < previous[idx] - bucketLength) {
+                    current[idx] = previous[idx] - bucketLength;
+                }
+            }
+        }
+    }
+
+    private static short[] encode(int[] base, int[] matrix) {
+        short[] delta = new short[base.length];
+        for (int idx = 0; idx < base.length; idx++) {
+            int d = matrix[idx] - base[idx];
+            if (d < Short.MIN_VALUE || d > Short.MAX_VALUE) {
+                return null;
+            }
+            delta[idx] = (short) d;
+        }
+        return delta;
+    }
+}
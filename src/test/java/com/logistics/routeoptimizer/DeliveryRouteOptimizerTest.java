@@ -1,7 +1,14 @@
 package com.logistics.routeoptimizer;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -11,6 +18,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import com.logistics.routeoptimizer.model.Order;
+import com.logistics.routeoptimizer.model.OrderBatch;
+import com.logistics.routeoptimizer.model.RouteRequest;
+import com.logistics.routeoptimizer.model.TimeWindow;
+import com.logistics.routeoptimizer.solver.CancellationToken;
+import com.logistics.routeoptimizer.solver.LabelSettingSolver;
+import com.logistics.routeoptimizer.util.CsrGraph;
+import com.logistics.routeoptimizer.util.GraphUtils;
+import com.logistics.routeoptimizer.util.TimeDependentDistanceMatrix;
 
 public class DeliveryRouteOptimizerTest {
 
@@ -194,4 +209,882 @@ public class DeliveryRouteOptimizerTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIterativeMatchesBruteForce() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 30; iteration++) {
+            int n = 2 + random.nextInt(6);
+            int[][] graph = randomGraph(random, n + 1, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 10 + random.nextInt(60)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+            long expected = bruteForce(graph, orders);
+            if (expected < 0) {
+                assertNull(route);
+            } else {
+                assertNotNull(route);
+                assertEquals(expected, routeLength(graph, route, orders));
+            }
+        }
+    }
+
+    @Test
+    void testIterativeHandlesTwentyLocations() {
+        int n = 18;
+        Random random = new Random(7);
+        int[][] graph = randomGraph(random, n + 1, 50);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            orders.add(new Order(i, 1000));
+        }
+
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+        assertNotNull(route);
+        assertEquals(n + 1, route.size());
+    }
+
+    @Test
+    void testRecursiveModeStillAvailable() {
+        int[][] graph = {
+                {0, 2, 3},
+                {2, 0, 3},
+                {3, 3, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        optimizer.setSolverMode(SolverMode.RECURSIVE);
+        List<Integer> route = optimizer.findDeliveryRoute(0, Arrays.asList(new Order(1, 7), new Order(2, 4)));
+        assertEquals(List.of(0, 2, 1), route);
+
+        // На сжатой задаче режиму не нужна полная матрица: подойдёт и разреженный граф.
+        DeliveryRouteOptimizer sparse = new DeliveryRouteOptimizer(CsrGraph.fromMatrix(graph));
+        sparse.setSolverMode(SolverMode.RECURSIVE);
+        assertEquals(route, sparse.findDeliveryRoute(0, Arrays.asList(new Order(1, 7), new Order(2, 4))));
+    }
+
+    @Test
+    void testParallelMatchesIterative() {
+        Random random = new Random(11);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            int n = 6 + random.nextInt(8);
+            int[][] graph = randomGraph(random, n + 1, 30);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 40 + random.nextInt(200)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            List<Integer> expected = optimizer.findDeliveryRoute(0, orders);
+            optimizer.setSolverMode(SolverMode.PARALLEL);
+            for (int threads = 1; threads <= 4; threads++) {
+                optimizer.setParallelism(threads);
+                assertEquals(expected, optimizer.findDeliveryRoute(0, orders));
+            }
+        }
+    }
+
+    @Test
+    void testSparseGraphMatchesDense() {
+        Random random = new Random(5);
+        int n = 200;
+        int[][] graph = new int[n][n];
+        for (int i = 0; i + 1 < n; i++) {
+            int w = 1 + random.nextInt(10);
+            graph[i][i + 1] = w;
+            graph[i + 1][i] = w;
+        }
+        for (int e = 0; e < 300; e++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                graph[a][b] = 1 + random.nextInt(30);
+            }
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            orders.add(new Order(random.nextInt(n), 400 + random.nextInt(400)));
+        }
+
+        List<Integer> dense = new DeliveryRouteOptimizer(graph).findDeliveryRoute(3, orders);
+        List<Integer> sparse = new DeliveryRouteOptimizer(CsrGraph.fromMatrix(graph)).findDeliveryRoute(3, orders);
+        assertEquals(dense, sparse);
+    }
+
+    @Test
+    void testEdgeUpdateChangesRoute() {
+        int[][] graph = {
+                {0, 1, 10, 10},
+                {1, 0, 1, 10},
+                {10, 1, 0, 1},
+                {10, 10, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        List<Order> orders = List.of(new Order(3, 2));
+        assertNull(optimizer.findDeliveryRoute(0, orders));
+
+        optimizer.updateEdges(new int[]{0, 3}, new int[]{3, 0}, new int[]{2, 2});
+        assertEquals(List.of(0, 3), optimizer.findDeliveryRoute(0, orders));
+
+        optimizer.updateEdge(0, 3, 0);
+        assertNull(optimizer.findDeliveryRoute(0, orders));
+        assertNull(new DeliveryRouteOptimizer(graph).findDeliveryRoute(0, orders));
+    }
+
+    @Test
+    void testEdgeUpdateOnSparseGraph() {
+        int[][] graph = {
+                {0, 1, 10, 10},
+                {1, 0, 1, 10},
+                {10, 1, 0, 1},
+                {10, 10, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(CsrGraph.fromMatrix(graph));
+        List<Order> orders = List.of(new Order(3, 3));
+        assertEquals(List.of(0, 3), optimizer.findDeliveryRoute(0, orders));
+
+        // Разрыв 1 -> 2 и повтор пары в пакете: действует последний вес.
+        optimizer.updateEdges(new int[]{1, 0, 0}, new int[]{2, 3, 3}, new int[]{0, 1, 5});
+        assertEquals(1, optimizer.getGraphVersion());
+        assertNull(optimizer.findDeliveryRoute(0, orders));
+
+        optimizer.updateEdge(0, 3, 2);
+        assertEquals(List.of(0, 3), optimizer.findDeliveryRoute(0, orders));
+        assertEquals(2, optimizer.getGraphVersion());
+
+        assertThrows(IllegalArgumentException.class, () -> optimizer.updateEdge(0, 4, 1));
+        assertThrows(IllegalArgumentException.class, () -> optimizer.updateEdge(0, 3, -1));
+    }
+
+    @Test
+    void testBatchMatchesSequential() {
+        Random random = new Random(21);
+        int n = 30;
+        int[][] graph = randomGraph(random, n, 20);
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+
+        List<RouteRequest> requests = new ArrayList<>();
+        for (int r = 0; r < 60; r++) {
+            List<Order> orders = new ArrayList<>();
+            int count = 1 + random.nextInt(9);
+            for (int i = 0; i < count; i++) {
+                orders.add(new Order(random.nextInt(n), 20 + random.nextInt(150)));
+            }
+            requests.add(new RouteRequest(random.nextInt(n), orders));
+        }
+
+        List<List<Integer>> routes = optimizer.findDeliveryRoutes(requests);
+        assertEquals(requests.size(), routes.size());
+        for (int r = 0; r < requests.size(); r++) {
+            RouteRequest request = requests.get(r);
+            assertEquals(optimizer.findDeliveryRoute(request.getStart(), request.getOrders()), routes.get(r));
+        }
+    }
+
+    @Test
+    void testHeuristicRoutesAreFeasible() {
+        Random random = new Random(31);
+        for (int iteration = 0; iteration < 20; iteration++) {
+            int n = 3 + random.nextInt(6);
+            int[][] graph = randomGraph(random, n + 1, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 30 + random.nextInt(100)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            optimizer.setSolverMode(SolverMode.HEURISTIC);
+            List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+            long optimum = bruteForce(graph, orders);
+            if (route != null) {
+                long length = routeLength(graph, route, orders);
+                assertTrue(length >= 0);
+                assertTrue(length >= optimum);
+            }
+        }
+    }
+
+    @Test
+    void testAutoHandsOffToHeuristicForLargeK() {
+        int n = 60;
+        Random random = new Random(17);
+        int[][] graph = randomGraph(random, n + 1, 30);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            orders.add(new Order(i, 100 * i));
+        }
+
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        assertEquals(SolverMode.AUTO, optimizer.getSolverMode());
+        List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+        assertNotNull(route);
+        assertEquals(n + 1, route.size());
+        assertTrue(routeLength(graph, route, orders) >= 0);
+    }
+
+    @Test
+    void testBranchAndBoundIsExact() {
+        Random random = new Random(41);
+        for (int iteration = 0; iteration < 30; iteration++) {
+            int n = 2 + random.nextInt(7);
+            int[][] graph = randomGraph(random, n + 1, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 10 + random.nextInt(80)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            optimizer.setSolverMode(SolverMode.BRANCH_AND_BOUND);
+            List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+            long expected = bruteForce(graph, orders);
+            if (expected < 0) {
+                assertNull(route);
+            } else {
+                assertNotNull(route);
+                assertEquals(expected, routeLength(graph, route, orders));
+            }
+        }
+    }
+
+    @Test
+    void testDeliveryPossibleMatchesRouteSearch() {
+        Random random = new Random(51);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            int n = 1 + random.nextInt(9);
+            int[][] graph = randomGraph(random, n + 1, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 5 + random.nextInt(20 * n)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            assertEquals(optimizer.findDeliveryRoute(0, orders) != null, optimizer.isDeliveryPossible(0, orders));
+        }
+    }
+
+    @Test
+    void testSessionMatchesFullRecomputation() {
+        Random random = new Random(61);
+        for (int iteration = 0; iteration < 30; iteration++) {
+            int n = 12;
+            int[][] graph = randomGraph(random, n + 1, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= 6; i++) {
+                orders.add(new Order(i, 20 + random.nextInt(120)));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            if (iteration % 2 == 1) {
+                optimizer.setExactThreshold(7);
+            }
+            RoutePlanningSession session = optimizer.startSession(0, orders);
+            for (int step = 0; step < 5; step++) {
+                Order added = new Order(1 + random.nextInt(n), 20 + random.nextInt(120));
+                orders.add(added);
+                session.addOrder(added);
+
+                List<Integer> route = session.getRoute();
+                List<Integer> expected = optimizer.findDeliveryRoute(0, orders);
+                if (iteration % 2 == 0) {
+                    assertEquals(expected == null, route == null);
+                    if (route != null) {
+                        assertEquals(routeLength(graph, expected, orders), routeLength(graph, route, orders));
+                    }
+                } else if (route != null) {
+                    assertTrue(routeLength(graph, route, orders) >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testReplanMatchesShiftedDeadlines() {
+        Random random = new Random(71);
+        for (int iteration = 0; iteration < 40; iteration++) {
+            int n = 3 + random.nextInt(6);
+            int[][] graph = randomGraph(random, n + 1, 20);
+            int currentTime = random.nextInt(30);
+            List<Order> orders = new ArrayList<>();
+            List<Order> shifted = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                int deadline = currentTime + 10 + random.nextInt(100);
+                orders.add(new Order(i, deadline));
+                shifted.add(new Order(i, deadline - currentTime));
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            List<Integer> expected = optimizer.findDeliveryRoute(0, shifted);
+            List<Integer> cold = optimizer.replanRoute(0, currentTime, orders, null);
+            List<Integer> previous = new ArrayList<>();
+            for (int i = n; i >= 0; i--) {
+                previous.add(i);
+            }
+            List<Integer> warm = optimizer.replanRoute(0, currentTime, orders, previous);
+            assertEquals(expected == null, cold == null);
+            assertEquals(expected == null, warm == null);
+            if (expected != null) {
+                long length = routeLength(graph, expected, shifted);
+                assertEquals(length, routeLength(graph, cold, shifted));
+                assertEquals(length, routeLength(graph, warm, shifted));
+            }
+        }
+    }
+
+    @Test
+    void testReplanAfterDeadlinePassedIsInfeasible() {
+        int[][] graph = {
+                {0, 1, 2},
+                {1, 0, 1},
+                {2, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        List<Order> orders = Arrays.asList(new Order(1, 10), new Order(2, 20));
+        assertNotNull(optimizer.replanRoute(0, 5, orders, null));
+        assertNull(optimizer.replanRoute(0, 10, orders, Arrays.asList(0, 1, 2)));
+    }
+
+    @Test
+    void testFleetCoversEveryOrderOnce() {
+        Random random = new Random(81);
+        int n = 40;
+        int[][] graph = randomGraph(random, n + 1, 20);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            orders.add(new Order(i, 60 + random.nextInt(200)));
+        }
+
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        List<List<Integer>> routes = optimizer.planFleet(0, 5, orders);
+        assertEquals(5, routes.size());
+        boolean[] covered = new boolean[n + 1];
+        for (List<Integer> route : routes) {
+            assertNotNull(route);
+            assertEquals(0, (int) route.get(0));
+            List<Order> own = new ArrayList<>();
+            for (int location : route.subList(1, route.size())) {
+                assertTrue(!covered[location]);
+                covered[location] = true;
+                own.add(orders.get(location - 1));
+            }
+            assertTrue(routeLength(graph, route, own) >= 0);
+        }
+        for (int i = 1; i <= n; i++) {
+            assertTrue(covered[i]);
+        }
+    }
+
+    @Test
+    void testFleetSplitsOrdersOneVehicleCannotServe() {
+        int[][] graph = {
+                {0, 10, 10},
+                {10, 0, 0},
+                {10, 0, 0}
+        };
+        List<Order> orders = Arrays.asList(new Order(1, 10), new Order(2, 10));
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        assertNull(optimizer.findDeliveryRoute(0, orders));
+
+        List<List<Integer>> routes = optimizer.planFleet(0, 2, orders);
+        assertEquals(2, routes.get(0).size());
+        assertEquals(2, routes.get(1).size());
+    }
+
+    @Test
+    void testOrderValidationMessages() {
+        IllegalArgumentException deadline = assertThrows(IllegalArgumentException.class, () -> new Order(1, -1));
+        assertEquals("Дедлайн не может быть отрицательным", deadline.getMessage());
+        IllegalArgumentException location = assertThrows(IllegalArgumentException.class, () -> new Order(-1, -1));
+        assertEquals("Индекс локации не может быть отрицательным", location.getMessage());
+        IllegalArgumentException batch = assertThrows(IllegalArgumentException.class, () -> new OrderBatch().add(1, -1));
+        assertEquals("Дедлайн не может быть отрицательным", batch.getMessage());
+    }
+
+    @Test
+    void testTimeWindowsAndServiceMatchBruteForce() {
+        Random random = new Random(91);
+        for (int iteration = 0; iteration < 150; iteration++) {
+            int n = 1 + random.nextInt(7);
+            int[][] graph = randomGraph(random, n + 1, 15);
+            List<Order> orders = randomWindowOrders(random, n, iteration % 3 == 0);
+
+            long expected = bruteForce(graph, orders);
+            for (SolverMode mode : new SolverMode[]{SolverMode.ITERATIVE, SolverMode.BRANCH_AND_BOUND}) {
+                DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+                optimizer.setSolverMode(mode);
+                List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+                if (expected < 0) {
+                    assertNull(route, mode.name());
+                } else {
+                    assertNotNull(route, mode.name());
+                    assertEquals(expected, routeLength(graph, route, orders), mode.name());
+                }
+            }
+
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            assertEquals(expected >= 0, optimizer.isDeliveryPossible(0, orders));
+            optimizer.setSolverMode(SolverMode.HEURISTIC);
+            List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+            if (route != null) {
+                assertTrue(routeLength(graph, route, orders) >= expected);
+                assertTrue(expected >= 0);
+            }
+        }
+    }
+
+    @Test
+    void testLabelSettingFindsShortestFeasibleRoute() {
+        Random random = new Random(141);
+        for (int iteration = 0; iteration < 150; iteration++) {
+            int n = 1 + random.nextInt(7);
+            int[][] graph = randomGraph(random, n + 1, 15);
+            List<Order> orders = randomWindowOrders(random, n, iteration % 3 == 0);
+
+            long expected = shortestFeasible(graph, orders, new ArrayList<>(), new boolean[n + 1]);
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            optimizer.setSolverMode(SolverMode.LABEL_SETTING);
+            SolveResult result = optimizer.findDeliveryRoute(0, orders, CancellationToken.NONE);
+            if (expected < 0) {
+                assertEquals(SolveStatus.INFEASIBLE, result.getStatus());
+                continue;
+            }
+            assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+            assertTrue(routeLength(graph, result.getRoute(), orders) >= 0);
+            assertEquals(expected, travelDistance(graph, result.getRoute()));
+
+            optimizer.setSolverMode(SolverMode.ITERATIVE);
+            assertTrue(travelDistance(graph, optimizer.findDeliveryRoute(0, orders)) >= expected);
+        }
+    }
+
+    @Test
+    void testIsolatedOrderLocationIsInfeasible() {
+        // Вершина 1 без рёбер: дедлайн «без ограничения» не делает её достижимой.
+        int[][] graph = {
+                {0, 0, 1},
+                {0, 0, 0},
+                {1, 0, 0}
+        };
+        List<Order> orders = Arrays.asList(new Order(1, Integer.MAX_VALUE), new Order(2, Integer.MAX_VALUE));
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        assertTrue(!optimizer.isDeliveryPossible(0, orders));
+        for (SolverMode mode : new SolverMode[]{SolverMode.ITERATIVE, SolverMode.HEURISTIC, SolverMode.BRANCH_AND_BOUND,
+                SolverMode.RECURSIVE, SolverMode.LABEL_SETTING}) {
+            optimizer.setSolverMode(mode);
+            assertNull(optimizer.findDeliveryRoute(0, orders), mode.name());
+        }
+        optimizer.setSolverMode(SolverMode.BRANCH_AND_BOUND);
+        assertEquals(SolveStatus.INFEASIBLE, optimizer.findDeliveryRoute(0, orders, CancellationToken.NONE).getStatus());
+        optimizer.setSolverMode(SolverMode.ITERATIVE);
+        assertEquals(SolveStatus.INFEASIBLE,
+                optimizer.findDeliveryRoute(0, orders, CancellationToken.withTimeout(60_000)).getStatus());
+        optimizer.setSolverMode(SolverMode.AUTO);
+        optimizer.setExactThreshold(1);
+        assertNull(optimizer.findDeliveryRoute(0, orders));
+    }
+
+    @Test
+    void testServiceTimeDelaysLaterStops() {
+        int[][] graph = {
+                {0, 1, 0},
+                {1, 0, 1},
+                {0, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        List<Order> orders = Arrays.asList(new Order(1, 0, 10, 5), new Order(2, 3));
+        assertEquals(Arrays.asList(0, 2, 1), optimizer.findDeliveryRoute(0, orders));
+        assertNull(optimizer.findDeliveryRoute(0, Arrays.asList(new Order(1, 0, 3, 5), new Order(2, 6, 6, 0))));
+        assertEquals(Arrays.asList(0, 1, 2),
+                optimizer.findDeliveryRoute(0, Arrays.asList(new Order(1, 0, 3, 5), new Order(2, 7, 7, 0))));
+    }
+
+    @Test
+    void testTimeDependentTravelMatchesBruteForce() {
+        Random random = new Random(101);
+        double[] slowdown = {1.0, 2.5, 3.0, 1.5, 0.8};
+        for (int iteration = 0; iteration < 60; iteration++) {
+            int n = 2 + random.nextInt(6);
+            int[][] graph = randomGraph(random, n + 1, 15);
+            TimeDependentDistanceMatrix matrix = TimeDependentDistanceMatrix.compute(graph, slowdown, 20);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 1; i <= n; i++) {
+                orders.add(new Order(i, 20 + random.nextInt(150)));
+            }
+
+            long expected = timeDependentBruteForce(matrix, orders, new ArrayList<>(), 0, 0, new boolean[n + 1]);
+            for (SolverMode mode : new SolverMode[]{SolverMode.ITERATIVE, SolverMode.BRANCH_AND_BOUND, SolverMode.HEURISTIC}) {
+                DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(matrix);
+                optimizer.setSolverMode(mode);
+                List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+                if (route == null) {
+                    assertTrue(expected < 0 || mode == SolverMode.HEURISTIC, mode.name());
+                    continue;
+                }
+                long time = timeDependentRouteTime(matrix, route, orders);
+                assertTrue(time >= 0, mode.name());
+                if (mode == SolverMode.HEURISTIC) {
+                    assertTrue(time >= expected);
+                } else {
+                    assertEquals(expected, time, mode.name());
+                }
+            }
+            assertEquals(expected >= 0, new DeliveryRouteOptimizer(matrix).isDeliveryPossible(0, orders));
+        }
+    }
+
+    @Test
+    void testTimeDependentRejectsUnsupportedModes() {
+        int[][] graph = {
+                {0, 2, 5},
+                {2, 0, 1},
+                {5, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(
+                TimeDependentDistanceMatrix.compute(graph, new double[]{1.0, 2.0}, 10));
+        assertThrows(IllegalArgumentException.class, () -> optimizer.setSolverMode(SolverMode.RECURSIVE));
+        assertThrows(IllegalArgumentException.class, () -> optimizer.setSolverMode(SolverMode.LABEL_SETTING));
+        assertEquals(SolverMode.AUTO, optimizer.getSolverMode());
+    }
+
+    @Test
+    void testLabelSettingRejectsTooManyLocations() {
+        int n = LabelSettingSolver.MAX_LOCATIONS + 1;
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(randomGraph(new Random(7), n + 1, 20));
+        optimizer.setSolverMode(SolverMode.LABEL_SETTING);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            orders.add(new Order(i, Integer.MAX_VALUE));
+        }
+        assertThrows(IllegalArgumentException.class, () -> optimizer.findDeliveryRoute(0, orders));
+    }
+
+    @Test
+    void testSolveListenerReportsStates() throws Exception {
+        Random random = new Random(21);
+        int[][] graph = randomGraph(random, 13, 20);
+        List<Order> orders = new ArrayList<>();
+        for (int l = 1; l <= 12; l++) {
+            orders.add(new Order(l, 40 + random.nextInt(200)));
+        }
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        OptimizerMetrics metrics = OptimizerMetrics.register(optimizer, "test-" + System.nanoTime());
+        List<SolveStats> reported = new ArrayList<>();
+
+        optimizer.setSolverMode(SolverMode.ITERATIVE);
+        List<Integer> route = optimizer.findDeliveryRoute(0, orders);
+        optimizer.setSolveListener(stats -> {
+            reported.add(stats);
+            metrics.onSolve(stats);
+        });
+        optimizer.setSolverMode(SolverMode.BRANCH_AND_BOUND);
+        assertEquals(route != null, optimizer.findDeliveryRoute(0, orders) != null);
+        optimizer.setSolverMode(SolverMode.ITERATIVE);
+        optimizer.findDeliveryRoute(0, orders);
+
+        assertEquals(3, metrics.getSolves());
+        SolveStats branchAndBound = reported.get(0);
+        assertEquals(SolverMode.BRANCH_AND_BOUND, branchAndBound.getMode());
+        assertTrue(branchAndBound.getStatesExpanded() > 0);
+        SolveStats iterative = reported.get(1);
+        assertEquals(12, iterative.getLocations());
+        assertEquals(12L << 11, iterative.getStatesExpanded() + iterative.getStatesPruned());
+        assertEquals(4L * (12 << 11), iterative.getTableBytes());
+        assertTrue(metrics.getPeakTableBytes() >= iterative.getTableBytes());
+        assertTrue(metrics.getMeanSolveMicrosByLocations()[12] >= 0);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(1, server.queryNames(new ObjectName("com.logistics.routeoptimizer:type=Optimizer,*"), null)
+                .stream().filter(name -> {
+                    try {
+                        return (Long) server.getAttribute(name, "Solves") == 3;
+                    } catch (JMException e) {
+                        return false;
+                    }
+                }).count());
+    }
+
+    @Test
+    void testCancelledSolveReturnsBestSoFar() {
+        Random random = new Random(111);
+        int[][] graph = randomGraph(random, 17, 20);
+        List<Order> orders = new ArrayList<>();
+        for (int l = 1; l <= 16; l++) {
+            orders.add(new Order(l, 10_000));
+        }
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        CancellationToken cancelled = CancellationToken.manual();
+        cancelled.cancel();
+        for (SolverMode mode : new SolverMode[]{SolverMode.ITERATIVE, SolverMode.PARALLEL, SolverMode.BRANCH_AND_BOUND}) {
+            optimizer.setSolverMode(mode);
+            SolveResult result = optimizer.findDeliveryRoute(0, orders, cancelled);
+            assertEquals(SolveStatus.FEASIBLE, result.getStatus(), mode.name());
+            assertEquals(17, result.getRoute().size());
+            assertTrue(routeLength(graph, result.getRoute(), orders) >= 0);
+        }
+
+        optimizer.setSolverMode(SolverMode.ITERATIVE);
+        List<Order> small = orders.subList(0, 8);
+        SolveResult optimal = optimizer.findDeliveryRoute(0, small, CancellationToken.withTimeout(60_000));
+        assertEquals(SolveStatus.OPTIMAL, optimal.getStatus());
+        assertEquals(optimizer.findDeliveryRoute(0, small), optimal.getRoute());
+
+        SolveResult infeasible = optimizer.findDeliveryRoute(0, Arrays.asList(new Order(1, 0)), CancellationToken.NONE);
+        assertEquals(SolveStatus.INFEASIBLE, infeasible.getStatus());
+        assertTrue(!infeasible.hasRoute());
+        assertEquals(SolveStatus.OPTIMAL, optimizer.findDeliveryRoute(0, Collections.emptyList(), cancelled).getStatus());
+    }
+
+    @Test
+    void testOrderBatchMatchesListApi() {
+        Random random = new Random(121);
+        OrderBatch batch = new OrderBatch(4);
+        int[] route = new int[16];
+        for (int trial = 0; trial < 30; trial++) {
+            int[][] graph = randomGraph(random, 12, 20);
+            DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+            batch.clear();
+            for (int i = 0, m = 1 + random.nextInt(14); i < m; i++) {
+                int ready = random.nextInt(20);
+                batch.add(1 + random.nextInt(11), ready, ready + 10 + random.nextInt(80), random.nextInt(3));
+            }
+            List<Integer> expected = optimizer.findDeliveryRoute(0, batch.toOrders());
+            int length = optimizer.findDeliveryRoute(0, batch, route);
+            if (expected == null) {
+                assertEquals(-1, length);
+            } else {
+                assertEquals(expected.size(), length);
+                for (int i = 0; i < length; i++) {
+                    assertEquals((int) expected.get(i), route[i]);
+                }
+            }
+        }
+
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(randomGraph(random, 12, 20));
+        batch.clear();
+        assertEquals(1, optimizer.findDeliveryRoute(5, batch, route));
+        assertEquals(5, route[0]);
+        batch.add(3, 50);
+        batch.add(4, 50);
+        assertThrows(IllegalArgumentException.class, () -> optimizer.findDeliveryRoute(0, batch, new int[2]));
+        batch.add(12, 50);
+        assertThrows(IllegalArgumentException.class, () -> optimizer.findDeliveryRoute(0, batch, route));
+    }
+
+    @Test
+    void testOrderBatchSteadyStateDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        Random random = new Random(131);
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(randomGraph(random, 20, 20));
+        OrderBatch batch = new OrderBatch();
+        for (int l = 1; l <= 8; l++) {
+            batch.add(l, 300);
+        }
+        int[] route = new int[9];
+        for (int i = 0; i < 2_000; i++) {
+            optimizer.findDeliveryRoute(0, batch, route);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = allocation.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 2_000; i++) {
+            optimizer.findDeliveryRoute(0, batch, route);
+        }
+        long allocated = allocation.getThreadAllocatedBytes(thread) - before;
+        // Запас на сам замер; выделение хотя бы одного объекта на вызов дало бы десятки килобайт.
+        assertTrue(allocated < 16_000, "Выделено байт: " + allocated);
+    }
+
+    private static long timeDependentRouteTime(TimeDependentDistanceMatrix matrix, List<Integer> route, List<Order> orders) {
+        long time = 0;
+        for (int i = 1; i < route.size(); i++) {
+            time += matrix.travelTime(route.get(i - 1), route.get(i), time);
+            for (Order order : orders) {
+                if (order.getLocation() == route.get(i) && time > order.getDeadline()) {
+                    return -1;
+                }
+            }
+        }
+        return time;
+    }
+
+    private static long timeDependentBruteForce(TimeDependentDistanceMatrix matrix, List<Order> orders,
+                                                List<Integer> prefix, int current, long time, boolean[] used) {
+        if (prefix.size() == orders.size()) {
+            return time;
+        }
+        long best = -1;
+        for (Order order : orders) {
+            int location = order.getLocation();
+            if (used[location]) {
+                continue;
+            }
+            long arrival = time + matrix.travelTime(current, location, time);
+            if (arrival > order.getDeadline()) {
+                continue;
+            }
+            used[location] = true;
+            prefix.add(location);
+            long result = timeDependentBruteForce(matrix, orders, prefix, location, arrival, used);
+            prefix.remove(prefix.size() - 1);
+            used[location] = false;
+            if (result >= 0 && (best < 0 || result < best)) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private static List<Order> randomWindowOrders(Random random, int n, boolean multipleWindows) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            int service = random.nextInt(6);
+            if (multipleWindows && random.nextBoolean()) {
+                int first = random.nextInt(30);
+                int second = first + 5 + random.nextInt(30);
+                orders.add(new Order(i, Arrays.asList(new TimeWindow(second, second + 5 + random.nextInt(20)),
+                        new TimeWindow(first, first + random.nextInt(5))), service));
+            } else {
+                int ready = random.nextInt(40);
+                orders.add(new Order(i, ready, ready + random.nextInt(60), service));
+            }
+            if (random.nextInt(4) == 0) {
+                orders.add(new Order(i, 10 + random.nextInt(80)));
+            }
+        }
+        return orders;
+    }
+
+    private static long travelDistance(int[][] graph, List<Integer> route) {
+        int[][] distances = shortestPaths(graph);
+        long distance = 0;
+        for (int i = 1; i < route.size(); i++) {
+            distance += distances[route.get(i - 1)][route.get(i)];
+        }
+        return distance;
+    }
+
+    // Наименьшая длина среди допустимых порядков уникальных локаций либо -1.
+    private static long shortestFeasible(int[][] graph, List<Order> orders, List<Integer> prefix, boolean[] used) {
+        List<Integer> locations = new ArrayList<>();
+        for (Order order : orders) {
+            if (!locations.contains(order.getLocation())) {
+                locations.add(order.getLocation());
+            }
+        }
+        if (prefix.size() == locations.size()) {
+            List<Integer> route = new ArrayList<>();
+            route.add(0);
+            route.addAll(prefix);
+            return routeLength(graph, route, orders) >= 0 ? travelDistance(graph, route) : -1;
+        }
+        long best = -1;
+        for (int location : locations) {
+            if (used[location]) {
+                continue;
+            }
+            used[location] = true;
+            prefix.add(location);
+            long result = shortestFeasible(graph, orders, prefix, used);
+            prefix.remove(prefix.size() - 1);
+            used[location] = false;
+            if (result >= 0 && (best < 0 || result < best)) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    static int[][] randomGraph(Random random, int size, int maxWeight) {
+        int[][] graph = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int w = 1 + random.nextInt(maxWeight);
+                graph[i][j] = w;
+                graph[j][i] = w;
+            }
+        }
+        return graph;
+    }
+
+    // Длина маршрута по кратчайшим путям либо -1, если нарушен дедлайн.
+    // Время окончания маршрута: все заказы локации обслуживаются за один визит,
+    // начало сдвигается вперёд, пока не попадёт в окно каждого заказа.
+    static long routeLength(int[][] graph, List<Integer> route, List<Order> orders) {
+        int[][] distances = shortestPaths(graph);
+        long time = 0;
+        for (int i = 1; i < route.size(); i++) {
+            time += distances[route.get(i - 1)][route.get(i)];
+            long start = time;
+            long service = 0;
+            boolean moved = true;
+            while (moved) {
+                moved = false;
+                service = 0;
+                for (Order order : orders) {
+                    if (order.getLocation() != route.get(i)) {
+                        continue;
+                    }
+                    service += order.getServiceTime();
+                    long next = -1;
+                    for (TimeWindow window : order.getTimeWindows()) {
+                        if (start <= window.getEnd()) {
+                            next = Math.max(start, window.getStart());
+                            break;
+                        }
+                    }
+                    if (next < 0) {
+                        return -1;
+                    }
+                    if (next > start) {
+                        start = next;
+                        moved = true;
+                    }
+                }
+            }
+            time = start + service;
+        }
+        return time;
+    }
+
+    static long bruteForce(int[][] graph, List<Order> orders) {
+        List<Integer> locations = new ArrayList<>();
+        for (Order order : orders) {
+            if (!locations.contains(order.getLocation())) {
+                locations.add(order.getLocation());
+            }
+        }
+        return permute(graph, orders, locations, 0);
+    }
+
+    private static long permute(int[][] graph, List<Order> orders,
+                                List<Integer> locations, int from) {
+        if (from == locations.size()) {
+            List<Integer> route = new ArrayList<>();
+            route.add(0);
+            route.addAll(locations);
+            return routeLength(graph, route, orders);
+        }
+        long best = -1;
+        for (int i = from; i < locations.size(); i++) {
+            Collections.swap(locations, from, i);
+            long length = permute(graph, orders, locations, from + 1);
+            if (length >= 0 && (best < 0 || length < best)) {
+                best = length;
+            }
+            Collections.swap(locations, from, i);
+        }
+        return best;
+    }
+
+    private static int[][] shortestPaths(int[][] graph) {
+        int[][] distances = GraphUtils.initializeGraph(graph);
+        GraphUtils.floydWarshall(distances);
+        return distances;
+    }
+}
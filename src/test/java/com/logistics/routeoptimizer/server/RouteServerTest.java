@@ -0,0 +1,153 @@
+package com.logistics.routeoptimizer.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.logistics.routeoptimizer.DeliveryRouteOptimizer;
+import com.logistics.routeoptimizer.SolverMode;
+import com.logistics.routeoptimizer.model.Order;
+
+public class RouteServerTest {
+
+    private static final int[][] GRAPH = {
+            {0, 2, 3},
+            {2, 0, 3},
+            {3, 3, 0}
+    };
+
+    @Test
+    void testHttpRouteAndMetrics() throws Exception {
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(GRAPH);
+        RouteServer server = new RouteServer(optimizer, 100);
+        InetSocketAddress address = server.start(0);
+        try {
+            String base = "http://" + address.getHostString() + ":" + address.getPort();
+            String body = "{\"start\":0,\"orders\":[{\"location\":1,\"deadline\":7},{\"location\":2,\"deadline\":4}]}";
+            String[] first = post(base + "/route", body);
+            assertEquals("200", first[0]);
+            assertTrue(first[1].startsWith("{\"route\":[0,2,1],"), first[1]);
+
+            String reordered = "{\"orders\":[{\"location\":2,\"deadline\":4},{\"location\":1,\"deadline\":7}],\"start\":0}";
+            assertTrue(post(base + "/route", reordered)[1].startsWith("{\"route\":[0,2,1],"));
+            assertTrue(post(base + "/route", "{\"start\":0,\"orders\":[{\"location\":1,\"deadline\":1}]}")[1]
+                    .startsWith("{\"route\":null,"));
+            assertEquals("400", post(base + "/route", "{\"start\":0,\"orders\":[{\"location\":9,\"deadline\":5}]}")[0]);
+            assertEquals("400", post(base + "/route", "{\"start\":0")[0]);
+
+            assertEquals(1, server.getCache().getHits());
+            assertEquals(3, server.getCache().getMisses());
+            assertEquals(3, server.getLatency().count());
+
+            HttpURLConnection metrics = (HttpURLConnection) new URL(base + "/metrics").openConnection();
+            String json = read(metrics.getInputStream());
+            assertTrue(json.startsWith("{\"routed\":3,\"errors\":2,\"cacheHits\":1,"), json);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsCoalesce() throws Exception {
+        RouteCache cache = new RouteCache(10);
+        List<Order> orders = Arrays.asList(new Order(1, 10), new Order(2, 10));
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = pool.submit(() -> cache.get(0, SolverMode.AUTO, 20, 50, 0, orders, () -> {
+                    solves.incrementAndGet();
+                    release.await();
+                    return Arrays.asList(0, 1, 2);
+                }));
+            }
+            // Ждём, пока все запросы дойдут до кэша, и только потом отпускаем решение.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getMisses() + cache.getCoalesced() < futures.length && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<?> future : futures) {
+                assertEquals(Arrays.asList(0, 1, 2), future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, solves.get());
+        assertEquals(3, cache.getCoalesced());
+    }
+
+    @Test
+    void testEdgeUpdateAndSettingsBypassCachedRoute() {
+        int[][] graph = {
+                {0, 1, 5},
+                {1, 0, 1},
+                {5, 1, 0}
+        };
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(graph);
+        RouteServer server = new RouteServer(optimizer, 10);
+        List<Order> orders = Arrays.asList(new Order(2, 3));
+        assertEquals(Arrays.asList(0, 2), server.route(0, orders));
+
+        assertEquals(Arrays.asList(0, 2), server.route(0, orders));
+        assertEquals(1, server.getCache().getHits());
+
+        // Смена режима — другой ключ: маршрут решается заново, а не берётся из кэша.
+        optimizer.setSolverMode(SolverMode.HEURISTIC);
+        assertEquals(Arrays.asList(0, 2), server.route(0, orders));
+        assertEquals(2, server.getCache().getMisses());
+        optimizer.setSolverMode(SolverMode.AUTO);
+        optimizer.setExactThreshold(5);
+        assertEquals(Arrays.asList(0, 2), server.route(0, orders));
+        assertEquals(3, server.getCache().getMisses());
+        // Выше порога AUTO решает эвристикой, и её ответ зависит от бюджета.
+        optimizer.setHeuristicBudgetMillis(10);
+        assertEquals(Arrays.asList(0, 2), server.route(0, orders));
+        assertEquals(4, server.getCache().getMisses());
+
+        // Объезд через 1 перестаёт быть коротким: напрямую 5 > 3.
+        optimizer.updateEdges(new int[]{1, 2}, new int[]{2, 1}, new int[]{10, 10});
+        assertNull(server.route(0, orders));
+        assertEquals(5, server.getCache().getMisses());
+    }
+
+    private static String[] post(String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new String[]{String.valueOf(status), read(in)};
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            stream.transferTo(bytes);
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.logistics.routeoptimizer.stream;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.logistics.routeoptimizer.DeliveryRouteOptimizer;
+import com.logistics.routeoptimizer.model.Order;
+
+public class StreamingRouteServiceTest {
+
+    private static final int[][] GRAPH = {
+            {0, 2, 3, 0},
+            {2, 0, 3, 4},
+            {3, 3, 0, 1},
+            {0, 4, 1, 0}
+    };
+
+    @Test
+    void testParsesCsvAndJson() {
+        OrderEvent csv = OrderEventParser.parse("0,2,15,3,1,c1");
+        assertEquals("c1", csv.getCourier());
+        assertEquals(0, csv.getStart());
+        assertEquals(2, csv.getOrder().getLocation());
+        assertEquals(3, csv.getOrder().getReadyTime());
+        assertEquals(15, csv.getOrder().getDeadline());
+        assertEquals(1, csv.getOrder().getServiceTime());
+
+        OrderEvent json = OrderEventParser.parse("{\"start\": 1, \"location\": 3, \"deadline\": 20}");
+        assertEquals("1", json.getCourier());
+        assertEquals(3, json.getOrder().getLocation());
+        assertEquals(0, json.getOrder().getReadyTime());
+
+        assertNull(OrderEventParser.parse("start,location,deadline"));
+        assertNull(OrderEventParser.parse("  "));
+        assertThrows(IllegalArgumentException.class, () -> OrderEventParser.parse("0,x,5"));
+        assertThrows(IllegalArgumentException.class, () -> OrderEventParser.parse("{\"start\":0,\"location\":1}"));
+    }
+
+    @Test
+    void testBatchesByCourierAndMatchesDirectSolve() throws Exception {
+        String input = String.join("\n",
+                "0,1,100,0,0,a",
+                "{\"courier\":\"b\",\"start\":3,\"location\":1,\"deadline\":100}",
+                "0,3,100,0,0,a",
+                "not an order",
+                "{\"courier\":\"b\",\"start\":3,\"location\":2,\"deadline\":100}",
+                "0,2,100,0,0,a");
+        DeliveryRouteOptimizer optimizer = new DeliveryRouteOptimizer(GRAPH);
+        StreamingRouteService service = new StreamingRouteService(optimizer, 4, 60_000, 2);
+        StringWriter output = new StringWriter();
+        service.run(new StringReader(input), output);
+
+        List<String> lines = Arrays.asList(output.toString().trim().split("\n"));
+        assertEquals(5, service.getEvents());
+        assertEquals(1, service.getRejected());
+        assertEquals(2, service.getBatches());
+        assertTrue(lines.contains("{\"line\":4,\"error\":\"Ожидалось от 3 до 6 полей CSV, получено 1\"}"));
+
+        List<Integer> a = optimizer.findDeliveryRoute(0, Arrays.asList(new Order(1, 100), new Order(3, 100)));
+        List<Integer> b = optimizer.findDeliveryRoute(3, Arrays.asList(new Order(1, 100), new Order(2, 100)));
+        List<Integer> last = optimizer.findDeliveryRoute(0, Arrays.asList(new Order(2, 100)));
+        assertTrue(lines.contains("{\"batch\":1,\"courier\":\"a\",\"start\":0,\"orders\":2,\"route\":"
+                + a.toString().replace(" ", "") + "}"));
+        assertTrue(lines.contains("{\"batch\":1,\"courier\":\"b\",\"start\":3,\"orders\":2,\"route\":"
+                + b.toString().replace(" ", "") + "}"));
+        assertTrue(lines.contains("{\"batch\":2,\"courier\":\"a\",\"start\":0,\"orders\":1,\"route\":"
+                + last.toString().replace(" ", "") + "}"));
+    }
+
+    @Test
+    void testInvalidLocationDoesNotDropOtherCouriers() throws Exception {
+        String input = "0,1,100,0,0,a\n0,9,100,0,0,b\n";
+        StreamingRouteService service = new StreamingRouteService(new DeliveryRouteOptimizer(GRAPH), 10, 60_000, 10);
+        StringWriter output = new StringWriter();
+        service.run(new StringReader(input), output);
+
+        String[] lines = output.toString().trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"batch\":1,\"courier\":\"a\",\"start\":0,\"orders\":1,\"route\":[0,1]}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"batch\":1,\"courier\":\"b\",\"start\":0,\"orders\":1,\"error\":"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+public class DistanceMatrixCacheTest {
+
+    @Test
+    void testSameGraphSharesMatrix() {
+        DistanceMatrixCache cache = new DistanceMatrixCache(DistanceMatrixCache.DEFAULT_MAX_BYTES);
+        int[][] graph = GraphUtilsTest.randomSparseGraph(new Random(1), 30);
+        int[][] copy = new int[30][];
+        for (int i = 0; i < 30; i++) {
+            copy[i] = graph[i].clone();
+        }
+
+        DenseDistanceMatrix first = cache.get(graph);
+        DenseDistanceMatrix second = cache.get(copy);
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        // Веса и кратчайшие пути: две матрицы int.
+        assertEquals(2 * 4L * 30 * 30, cache.getSizeInBytes());
+
+        copy[0][1] += 1;
+        assertNotSame(first, cache.get(copy));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        Random random = new Random(2);
+        int n = 20;
+        DistanceMatrixCache cache = new DistanceMatrixCache(2 * DenseDistanceMatrix.sizeInBytes(n));
+        int[][] a = GraphUtilsTest.randomSparseGraph(random, n);
+        int[][] b = GraphUtilsTest.randomSparseGraph(random, n);
+        int[][] c = GraphUtilsTest.randomSparseGraph(random, n);
+
+        DenseDistanceMatrix matrixA = cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(matrixA, cache.get(a));
+        assertEquals(3, cache.getMisses());
+    }
+}
@@ -0,0 +1,40 @@
+package com.logistics.routeoptimizer.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DistanceMatrixFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        int n = 57;
+        DenseDistanceMatrix dense = DenseDistanceMatrix.compute(GraphUtilsTest.randomSparseGraph(new Random(8), n));
+        Path file = tempDir.resolve("graph.dpm");
+        DistanceMatrixFile.write(dense, file);
+
+        MappedDistanceMatrix mapped = DistanceMatrixFile.open(file);
+        assertEquals(n, mapped.size());
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(dense.distance(i, j), mapped.distance(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("garbage.dpm");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertThrows(IOException.class, () -> DistanceMatrixFile.open(file));
+    }
+}
@@ -0,0 +1,130 @@
+package com.logistics.routeoptimizer.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.logistics.routeoptimizer.model.Order;
+
+public class GraphLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTextAndBinaryMatrixRoundTrip() throws IOException {
+        int n = 300;
+        int[][] graph = GraphUtilsTest.randomSparseGraph(new Random(19), n);
+        StringBuilder text = new StringBuilder("# матрица смежности\n").append(n).append('\n');
+        for (int[] row : graph) {
+            for (int j = 0; j < n; j++) {
+                text.append(row[j]).append(j + 1 < n ? ' ' : '\n');
+            }
+        }
+        Path textFile = tempDir.resolve("graph.txt");
+        Files.write(textFile, text.toString().getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(graph, GraphLoader.readMatrix(textFile));
+        assertFalse(GraphLoader.isBinary(textFile));
+
+        Path binaryFile = tempDir.resolve("graph.bin");
+        GraphLoader.writeBinary(graph, binaryFile);
+        assertTrue(GraphLoader.isBinary(binaryFile));
+        assertArrayEquals(graph, GraphLoader.readBinary(binaryFile));
+    }
+
+    @Test
+    void testEdgeListMatchesMatrix() throws IOException {
+        Path file = tempDir.resolve("edges.csv");
+        Files.write(file, "from,to,weight\r\n0,1,4\r\n1,2,3\r\n0,2,9\r\n".getBytes(StandardCharsets.UTF_8));
+        int[][] matrix = {
+                {0, 4, 9},
+                {4, 0, 3},
+                {9, 3, 0}
+        };
+        CsrGraph expected = CsrGraph.fromMatrix(matrix);
+        CsrGraph undirected = GraphLoader.readEdges(file, true);
+        assertEquals(expected.vertexCount(), undirected.vertexCount());
+        assertEquals(expected.edgeCount(), undirected.edgeCount());
+        assertEquals(3, GraphLoader.readEdges(file, false).edgeCount());
+
+        DijkstraDistanceMatrix distances = new DijkstraDistanceMatrix(undirected);
+        assertEquals(7, distances.distance(0, 2));
+        assertEquals(7, distances.distance(2, 0));
+    }
+
+    @Test
+    void testZeroWeightEdgeIsNoEdge() throws IOException {
+        Path file = tempDir.resolve("zero.csv");
+        Files.write(file, "0,1,4\n1,2,0\n0,2,9\n".getBytes(StandardCharsets.UTF_8));
+        int[][] matrix = {
+                {0, 4, 9},
+                {0, 0, 0},
+                {0, 0, 0}
+        };
+        CsrGraph edges = GraphLoader.readEdges(file, false);
+        assertEquals(2, edges.edgeCount());
+        assertEquals(2, CsrGraph.fromMatrix(matrix).edgeCount());
+
+        DijkstraDistanceMatrix sparse = new DijkstraDistanceMatrix(edges);
+        DenseDistanceMatrix dense = DenseDistanceMatrix.compute(matrix);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(dense.distance(i, j), sparse.distance(i, j));
+            }
+        }
+        assertEquals(GraphUtils.INF, sparse.distance(1, 2));
+    }
+
+    @Test
+    void testReadsOrdersWithOptionalFields() throws IOException {
+        Path file = tempDir.resolve("orders.csv");
+        Files.write(file, "location,deadline,readyTime,serviceTime\n1,30\n2,40,10\n3,50,5,2\n".getBytes(StandardCharsets.UTF_8));
+        List<Order> orders = GraphLoader.readOrders(file);
+        assertEquals(3, orders.size());
+        assertEquals(30, orders.get(0).getDeadline());
+        assertEquals(10, orders.get(1).getReadyTime());
+        assertEquals(2, orders.get(2).getServiceTime());
+    }
+
+    @Test
+    void testRejectsMalformedInput() throws IOException {
+        Path truncated = tempDir.resolve("truncated.txt");
+        Files.write(truncated, "3\n0 1 2\n1 0\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> GraphLoader.readMatrix(truncated));
+
+        Path garbage = tempDir.resolve("garbage.csv");
+        Files.write(garbage, "0,1,x\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> GraphLoader.readEdges(garbage, false));
+
+        Path foreign = tempDir.resolve("foreign.bin");
+        Files.write(foreign, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertThrows(IOException.class, () -> GraphLoader.readBinary(foreign));
+    }
+
+    @Test
+    void testShortLineIsNotCompletedFromNextLine() throws IOException {
+        // Без проверки строки "0 1" взяла бы вес 2 из следующей и файл был бы принят.
+        Path edges = tempDir.resolve("short-edge.txt");
+        Files.write(edges, "5 6 7\n0 1\n2\n".getBytes(StandardCharsets.UTF_8));
+        IOException edgeError = assertThrows(IOException.class, () -> GraphLoader.readEdges(edges, false));
+        assertTrue(edgeError.getMessage().startsWith("Слишком мало полей ребра"), edgeError.getMessage());
+        assertTrue(edgeError.getMessage().endsWith("строка 2"), edgeError.getMessage());
+
+        Path orders = tempDir.resolve("short-order.csv");
+        Files.write(orders, "1,30\n2\n3,40\n".getBytes(StandardCharsets.UTF_8));
+        IOException orderError = assertThrows(IOException.class, () -> GraphLoader.readOrders(orders));
+        assertTrue(orderError.getMessage().startsWith("Слишком мало полей заказа"), orderError.getMessage());
+        assertTrue(orderError.getMessage().endsWith("строка 2"), orderError.getMessage());
+    }
+}
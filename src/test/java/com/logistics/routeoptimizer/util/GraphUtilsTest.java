@@ -0,0 +1,86 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class GraphUtilsTest {
+
+    @Test
+    void testBlockedMatchesReference() {
+        Random random = new Random(3);
+        int[] sizes = {1, 2, 17, 64, 65, 150};
+        for (int n : sizes) {
+            int[][] graph = randomSparseGraph(random, n);
+            int[][] expected = GraphUtils.initializeGraph(graph);
+            GraphUtils.floydWarshall(expected);
+
+            for (int threads = 1; threads <= 3; threads++) {
+                int[] actual = GraphUtils.initializeFlatGraph(graph);
+                GraphUtils.floydWarshallBlocked(actual, n, threads);
+                for (int i = 0; i < n; i++) {
+                    int[] row = new int[n];
+                    System.arraycopy(actual, i * n, row, 0, n);
+                    assertArrayEquals(expected[i], row);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRejectsMatrixLargerThanArray() {
+        // 46341^2 > Integer.MAX_VALUE: в int произведение переполнилось бы.
+        assertEquals(46340 * 46340, GraphUtils.flatSize(46340));
+        assertThrows(IllegalArgumentException.class, () -> GraphUtils.initializeFlatGraph(new int[46341][]));
+        assertThrows(IllegalArgumentException.class, () -> GraphUtils.floydWarshallBlocked(new int[0], 46341, 2));
+    }
+
+    @Test
+    void testSaturatingAdd() {
+        assertEquals(GraphUtils.INF, GraphUtils.saturatingAdd(GraphUtils.INF, GraphUtils.INF));
+        assertEquals(GraphUtils.INF, GraphUtils.saturatingAdd(GraphUtils.INF, 5));
+        assertEquals(7, GraphUtils.saturatingAdd(3, 4));
+    }
+
+    @Test
+    void testDynamicMatrixMatchesRecompute() {
+        Random random = new Random(4);
+        int n = 40;
+        int[][] graph = randomSparseGraph(random, n);
+        DynamicDistanceMatrix dynamic = DenseDistanceMatrix.compute(graph).toDynamic();
+        for (int step = 0; step < 200; step++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            int weight = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(100);
+            if (from == to) {
+                continue;
+            }
+            graph[from][to] = weight;
+            dynamic.updateEdge(from, to, weight);
+
+            int[][] expected = GraphUtils.initializeGraph(graph);
+            GraphUtils.floydWarshall(expected);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals(expected[i][j], dynamic.distance(i, j));
+                }
+            }
+        }
+    }
+
+    // Ориентированный граф, где примерно треть рёбер отсутствует.
+    static int[][] randomSparseGraph(Random random, int n) {
+        int[][] graph = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && random.nextInt(3) != 0) {
+                    graph[i][j] = 1 + random.nextInt(100);
+                }
+            }
+        }
+        return graph;
+    }
+}
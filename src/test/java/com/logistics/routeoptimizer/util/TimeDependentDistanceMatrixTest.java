@@ -0,0 +1,63 @@
+package com.logistics.routeoptimizer.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class TimeDependentDistanceMatrixTest {
+
+    @Test
+    void testBucketsMatchStaticShortestPaths() {
+        Random random = new Random(3);
+        int n = 25;
+        int[][][] graphs = new int[4][][];
+        for (int b = 0; b < graphs.length; b++) {
+            graphs[b] = GraphUtilsTest.randomSparseGraph(random, n);
+        }
+        // Последняя корзина с огромными весами не умещается в short-разность.
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                graphs[3][i][j] = graphs[3][i][j] == 0 ? 0 : 100_000 + graphs[3][i][j];
+            }
+        }
+
+        TimeDependentDistanceMatrix matrix = TimeDependentDistanceMatrix.compute(graphs, 1_000_000);
+        for (int b = 0; b < graphs.length; b++) {
+            int[][] expected = GraphUtils.initializeGraph(graphs[b]);
+            GraphUtils.floydWarshall(expected);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals(expected[i][j], matrix.distance(b, i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTravelIsFifoAndInterpolated() {
+        Random random = new Random(4);
+        int n = 15;
+        int[][] graph = GraphUtilsTest.randomSparseGraph(random, n);
+        double[] slowdown = {1.0, 3.0, 0.5, 2.0, 1.0};
+        int bucketLength = 10;
+        TimeDependentDistanceMatrix matrix = TimeDependentDistanceMatrix.compute(graph, slowdown, bucketLength);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (matrix.distance(0, i, j) >= GraphUtils.INF) {
+                    continue;
+                }
+                assertEquals(matrix.distance(1, i, j), matrix.travelTime(i, j, bucketLength));
+                long previous = matrix.travelTime(i, j, 0);
+                for (int t = 1; t < 70; t++) {
+                    long arrival = t + matrix.travelTime(i, j, t);
+                    assertTrue(arrival >= previous, "FIFO нарушен для " + i + " -> " + j);
+                    previous = arrival;
+                }
+                assertTrue(matrix.distance(i, j) <= matrix.travelTime(i, j, 15));
+            }
+        }
+    }
+}